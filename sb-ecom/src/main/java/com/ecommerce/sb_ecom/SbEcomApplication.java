@@ -2,8 +2,10 @@ package com.ecommerce.sb_ecom;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SbEcomApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(SbEcomApplication.class, args);
@@ -0,0 +1,193 @@
+package com.ecommerce.sb_ecom.cache;
+
+import com.ecommerce.sb_ecom.event.CartChangedEvent;
+import com.ecommerce.sb_ecom.event.CartsExpiredEvent;
+import com.ecommerce.sb_ecom.event.CartsRepricedEvent;
+import com.ecommerce.sb_ecom.event.CategoryDeletedEvent;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductsRepricedEvent;
+import com.ecommerce.sb_ecom.payload.CacheStatsDTO;
+import com.ecommerce.sb_ecom.payload.CartDTO;
+import com.ecommerce.sb_ecom.payload.ProductDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU + TTL cache of each user's cart view, keyed by email. An entry is dropped
+ * once a change to its cart commits, and when a product it shows changes, since the
+ * view carries the product's current name, description and images.
+ */
+@Component
+public class CartViewCache {
+
+    @Value("${cart.view-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${cart.view-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Long, String> emailsByCartId = new HashMap<>();
+    private final Map<Long, Set<String>> emailsByProductId = new HashMap<>();
+
+    // Bumped on every invalidation so a load that raced with a change is not cached
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CartDTO get(String email, Supplier<CartDTO> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            CacheEntry entry = entries.get(email);
+            if (entry != null) {
+                if (entry.expiresAt > System.nanoTime()) {
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                removeEntry(email);
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            loadGeneration = generation;
+        }
+
+        CartDTO value = loader.get();
+
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                put(email, value);
+            }
+        }
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCartChanged(CartChangedEvent event) {
+        generation++;
+        String email = emailsByCartId.get(event.getCartId());
+        if (email != null && removeEntry(email)) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCartsExpired(CartsExpiredEvent event) {
+        generation++;
+        for (Long cartId : event.getCartIds()) {
+            String email = emailsByCartId.get(cartId);
+            if (email != null && removeEntry(email)) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateProducts(List.of(event.getProductId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        invalidateProducts(event.getProductIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsRepriced(ProductsRepricedEvent event) {
+        invalidateProducts(event.getProductIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartsRepriced(CartsRepricedEvent event) {
+        invalidateProducts(event.getProductIds());
+    }
+
+    public synchronized CacheStatsDTO getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        return new CacheStatsDTO("cartViews", entries.size(), maxEntries, null, null, hitCount, missCount,
+                evictions.get(), expirations.get(), invalidations.get(),
+                total == 0 ? 0.0 : (double) hitCount / total);
+    }
+
+    private synchronized void invalidateProducts(Collection<Long> productIds) {
+        generation++;
+        for (Long productId : productIds) {
+            Set<String> emails = emailsByProductId.get(productId);
+            if (emails == null) {
+                continue;
+            }
+            for (String email : new ArrayList<>(emails)) {
+                if (removeEntry(email)) {
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void put(String email, CartDTO value) {
+        removeEntry(email);
+
+        List<Long> productIds = new ArrayList<>();
+        for (ProductDTO product : value.getProducts()) {
+            productIds.add(product.getProductId());
+        }
+
+        entries.put(email, new CacheEntry(value, productIds, System.nanoTime() + ttlSeconds * 1_000_000_000L));
+        emailsByCartId.put(value.getCartId(), email);
+        for (Long productId : productIds) {
+            emailsByProductId.computeIfAbsent(productId, id -> new HashSet<>()).add(email);
+        }
+
+        Iterator<Map.Entry<String, CacheEntry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            Map.Entry<String, CacheEntry> entry = eldest.next();
+            eldest.remove();
+            unindex(entry.getKey(), entry.getValue());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean removeEntry(String email) {
+        CacheEntry entry = entries.remove(email);
+        if (entry == null) {
+            return false;
+        }
+        unindex(email, entry);
+        return true;
+    }
+
+    private void unindex(String email, CacheEntry entry) {
+        emailsByCartId.remove(entry.value.getCartId());
+        for (Long productId : entry.productIds) {
+            Set<String> emails = emailsByProductId.get(productId);
+            if (emails != null) {
+                emails.remove(email);
+                if (emails.isEmpty()) {
+                    emailsByProductId.remove(productId);
+                }
+            }
+        }
+    }
+
+    private static class CacheEntry {
+        private final CartDTO value;
+        private final List<Long> productIds;
+        private final long expiresAt;
+
+        private CacheEntry(CartDTO value, List<Long> productIds, long expiresAt) {
+            this.value = value;
+            this.productIds = productIds;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
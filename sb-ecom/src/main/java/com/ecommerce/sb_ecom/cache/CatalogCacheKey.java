@@ -0,0 +1,38 @@
+package com.ecommerce.sb_ecom.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CatalogCacheKey {
+
+    public enum Scope {
+        ALL,
+        CATEGORY,
+        KEYWORD
+    }
+
+    private Scope scope;
+
+    // categoryId for CATEGORY, lower-cased keyword for KEYWORD, null for ALL
+    private Object scopeValue;
+
+    private Integer pageNumber;
+    private Integer pageSize;
+    private String sortBy;
+    private String sortOrder;
+    private Boolean withTotals;
+
+    public static CatalogCacheKey all(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
+        return new CatalogCacheKey(Scope.ALL, null, pageNumber, pageSize, sortBy, sortOrder.toLowerCase(), withTotals);
+    }
+
+    public static CatalogCacheKey category(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
+        return new CatalogCacheKey(Scope.CATEGORY, categoryId, pageNumber, pageSize, sortBy, sortOrder.toLowerCase(), withTotals);
+    }
+
+    public static CatalogCacheKey keyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
+        return new CatalogCacheKey(Scope.KEYWORD, keyword.toLowerCase(), pageNumber, pageSize, sortBy, sortOrder.toLowerCase(), withTotals);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.sb_ecom.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CatalogVersion {
+
+    // Tells versions of different application runs apart, the counter restarts at zero
+    private final String epoch;
+    private final long version;
+    private final long lastModified;
+
+    public String getETag() {
+        return "\"" + epoch + "." + version + "\"";
+    }
+
+    // The gzip-encoded rendering is a different representation and needs its own strong tag
+    public String getGzipETag() {
+        return "\"" + epoch + "." + version + "-gzip\"";
+    }
+}
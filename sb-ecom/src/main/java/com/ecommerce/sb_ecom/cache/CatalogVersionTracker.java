@@ -0,0 +1,104 @@
+package com.ecommerce.sb_ecom.cache;
+
+import com.ecommerce.sb_ecom.event.CategoryChangedEvent;
+import com.ecommerce.sb_ecom.event.CategoryDeletedEvent;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductsImportedEvent;
+import com.ecommerce.sb_ecom.event.ProductsRepricedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Monotonic catalog version, tracked separately for the product listings, each
+ * category's product listing and the category listing. Every write takes the next
+ * value of one counter, so a listing's version only ever grows and makes a strong
+ * ETag for it. Versions move after commit: a reader can see new data under an old
+ * version, never old data under a new one. For that the listeners run after every
+ * index and data cache has applied the change, and only RenderedPageCache, which
+ * drops pages by version, runs after them.
+ */
+@Component
+public class CatalogVersionTracker {
+
+    private static final String PRODUCTS = "products";
+    private static final String CATEGORIES = "categories";
+    private static final String CATEGORY = "category:";
+
+    private final CatalogVersion initial = new CatalogVersion(
+            Long.toString(System.currentTimeMillis(), 36), 0, System.currentTimeMillis());
+    private final Map<String, CatalogVersion> versions = new ConcurrentHashMap<>();
+    private long counter;
+
+    // Floor for every category listing, moved by writes that do not say which categories they touched
+    private volatile CatalogVersion allCategories = initial;
+
+    public CatalogVersion products() {
+        return versions.getOrDefault(PRODUCTS, initial);
+    }
+
+    public CatalogVersion categories() {
+        return versions.getOrDefault(CATEGORIES, initial);
+    }
+
+    public CatalogVersion category(Long categoryId) {
+        CatalogVersion version = versions.getOrDefault(CATEGORY + categoryId, initial);
+        CatalogVersion floor = allCategories;
+        return floor.getVersion() > version.getVersion() ? floor : version;
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // The category listing shows product counts, which only creates and deletes move
+        boolean counted = event.getChangeType() == ProductChangedEvent.ChangeType.CREATED
+                || event.getChangeType() == ProductChangedEvent.ChangeType.DELETED;
+        if (event.getCategoryId() == null && counted) {
+            bump(true, PRODUCTS, CATEGORIES);
+        } else if (event.getCategoryId() == null) {
+            bump(true, PRODUCTS);
+        } else if (counted) {
+            bump(false, PRODUCTS, CATEGORIES, CATEGORY + event.getCategoryId());
+        } else {
+            bump(false, PRODUCTS, CATEGORY + event.getCategoryId());
+        }
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        bump(false, PRODUCTS, CATEGORIES, CATEGORY + event.getCategoryId());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsRepriced(ProductsRepricedEvent event) {
+        bump(true, PRODUCTS);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        bump(false, CATEGORIES);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        bump(false, CATEGORIES, PRODUCTS, CATEGORY + event.getCategoryId());
+    }
+
+    private synchronized void bump(boolean everyCategory, String... scopes) {
+        CatalogVersion next = new CatalogVersion(initial.getEpoch(), ++counter, System.currentTimeMillis());
+        for (String scope : scopes) {
+            versions.put(scope, next);
+        }
+        if (everyCategory) {
+            allCategories = next;
+        }
+    }
+}
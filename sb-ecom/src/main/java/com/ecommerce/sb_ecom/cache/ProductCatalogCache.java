@@ -0,0 +1,244 @@
+package com.ecommerce.sb_ecom.cache;
+
+import com.ecommerce.sb_ecom.event.CategoryDeletedEvent;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductsImportedEvent;
+import com.ecommerce.sb_ecom.event.ProductsRepricedEvent;
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.CacheStatsDTO;
+import com.ecommerce.sb_ecom.payload.ProductDTO;
+import com.ecommerce.sb_ecom.payload.ProductResponse;
+import com.ecommerce.sb_ecom.search.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU + TTL read-through cache for the public product listings.
+ * Entries are indexed by tag (listing scope and every product on the page)
+ * so a product write only drops the pages it can actually change.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private static final String ALL_TAG = "all";
+    private static final String CATEGORY_TAG = "category:";
+    private static final String PRODUCT_TAG = "product:";
+
+    @Value("${catalog.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${catalog.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<CatalogCacheKey, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Set<CatalogCacheKey>> keysByTag = new HashMap<>();
+
+    // Bumped on every invalidation so a load that raced with a write is not cached
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductResponse get(CatalogCacheKey key, Supplier<ProductResponse> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > System.nanoTime()) {
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                removeEntry(key);
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            loadGeneration = generation;
+        }
+
+        ProductResponse value = loader.get();
+
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    // Runs after the search index has applied the change so a reload sees the new state, and before
+    // CatalogVersionTracker moves the version so a page rendered under the new version is never an old one
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Set<String> tags = new HashSet<>();
+        tags.add(PRODUCT_TAG + event.getProductId());
+
+        // An image change never moves a product between pages, everything else can
+        if (event.getChangeType() != ProductChangedEvent.ChangeType.IMAGE_UPDATED) {
+            tags.add(ALL_TAG);
+            if (event.getCategoryId() != null) {
+                tags.add(CATEGORY_TAG + event.getCategoryId());
+            }
+        }
+
+        List<String[]> matched = new ArrayList<>();
+        if (event.getChangeType() != ProductChangedEvent.ChangeType.IMAGE_UPDATED) {
+            matched.add(new String[]{event.getProduct().getProductName(), event.getProduct().getDescription()});
+            matched.add(new String[]{event.getPreviousProductName(), event.getPreviousDescription()});
+        }
+        invalidate(tags, matched);
+    }
+
+    // New products have no product entries yet, only the pages they can join are stale
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        Set<String> tags = new HashSet<>();
+        tags.add(ALL_TAG);
+        tags.add(CATEGORY_TAG + event.getCategoryId());
+        List<String[]> matched = new ArrayList<>();
+        for (Product product : event.getProducts()) {
+            matched.add(new String[]{product.getProductName(), product.getDescription()});
+        }
+        invalidate(tags, matched);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        Set<String> tags = new HashSet<>();
+        tags.add(ALL_TAG);
+        tags.add(CATEGORY_TAG + event.getCategoryId());
+        for (Long productId : event.getProductIds()) {
+            tags.add(PRODUCT_TAG + productId);
+        }
+        invalidate(tags, List.of());
+    }
+
+    // A price change can reorder any price sorted page, so nothing cached is safe to keep
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsRepriced(ProductsRepricedEvent event) {
+        clear();
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+        keysByTag.clear();
+    }
+
+    public synchronized CacheStatsDTO getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        return new CacheStatsDTO("productCatalog", entries.size(), maxEntries, null, null, hitCount, missCount,
+                evictions.get(), expirations.get(), invalidations.get(),
+                total == 0 ? 0.0 : (double) hitCount / total);
+    }
+
+    // Each product is a {name, description} pair, before or after the write
+    private synchronized void invalidate(Set<String> tags, List<String[]> products) {
+        generation++;
+        Set<CatalogCacheKey> doomed = new HashSet<>();
+        for (String tag : tags) {
+            Set<CatalogCacheKey> keys = keysByTag.get(tag);
+            if (keys != null) {
+                doomed.addAll(keys);
+            }
+        }
+
+        // Keyword pages hold the search index results, so only keywords the old or new product matches are stale
+        for (CatalogCacheKey key : entries.keySet()) {
+            if (key.getScope() == CatalogCacheKey.Scope.KEYWORD && matchesAny((String) key.getScopeValue(), products)) {
+                doomed.add(key);
+            }
+        }
+
+        for (CatalogCacheKey key : doomed) {
+            if (removeEntry(key)) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean matchesAny(String keyword, List<String[]> products) {
+        for (String[] product : products) {
+            if (ProductSearchIndex.matches(keyword, product[0], product[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void put(CatalogCacheKey key, ProductResponse value) {
+        removeEntry(key);
+
+        Set<String> tags = new HashSet<>();
+        switch (key.getScope()) {
+            case ALL -> tags.add(ALL_TAG);
+            case CATEGORY -> tags.add(CATEGORY_TAG + key.getScopeValue());
+            case KEYWORD -> { }
+        }
+        for (ProductDTO product : value.getContent()) {
+            tags.add(PRODUCT_TAG + product.getProductId());
+        }
+
+        entries.put(key, new CacheEntry(value, tags, System.nanoTime() + ttlSeconds * 1_000_000_000L));
+        for (String tag : tags) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+
+        Iterator<Map.Entry<CatalogCacheKey, CacheEntry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            Map.Entry<CatalogCacheKey, CacheEntry> entry = eldest.next();
+            eldest.remove();
+            untag(entry.getKey(), entry.getValue());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean removeEntry(CatalogCacheKey key) {
+        CacheEntry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        untag(key, entry);
+        return true;
+    }
+
+    private void untag(CatalogCacheKey key, CacheEntry entry) {
+        for (String tag : entry.tags) {
+            Set<CatalogCacheKey> keys = keysByTag.get(tag);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByTag.remove(tag);
+                }
+            }
+        }
+    }
+
+    private static class CacheEntry {
+        private final ProductResponse value;
+        private final Set<String> tags;
+        private final long expiresAt;
+
+        private CacheEntry(ProductResponse value, Set<String> tags, long expiresAt) {
+            this.value = value;
+            this.tags = tags;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.sb_ecom.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+
+/**
+ * A listing serialized once to JSON, plus its gzip encoding when the JSON is large
+ * enough for compression to pay off.
+ */
+@Getter
+public class RenderedPage {
+
+    private final byte[] json;
+    private final byte[] gzip;
+    private final CatalogVersion version;
+    private final long expiresAt;
+
+    public RenderedPage(byte[] json, byte[] gzip, CatalogVersion version, long expiresAt) {
+        this.json = json;
+        this.gzip = gzip;
+        this.version = version;
+        this.expiresAt = expiresAt;
+    }
+
+    public int size() {
+        return json.length + (gzip == null ? 0 : gzip.length);
+    }
+
+    /**
+     * Writes the stored bytes to the servlet response, the gzip encoding when the client
+     * accepts it. The tags are those of the version the page was rendered at.
+     */
+    public void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean useGzip = gzip != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] body = useGzip ? gzip : json;
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, useGzip ? version.getGzipETag() : version.getETag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, version.getLastModified());
+        if (useGzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
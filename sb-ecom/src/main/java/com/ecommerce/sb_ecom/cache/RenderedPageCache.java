@@ -0,0 +1,193 @@
+package com.ecommerce.sb_ecom.cache;
+
+import com.ecommerce.sb_ecom.event.CategoryDeletedEvent;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductsImportedEvent;
+import com.ecommerce.sb_ecom.event.ProductsRepricedEvent;
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import com.ecommerce.sb_ecom.payload.CacheStatsDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Byte-bounded LRU cache of fully serialized all-products and category listing pages,
+ * so a hit skips mapping and Jackson and is a single write to the output stream.
+ * A page is stored on its second miss only, so one-off deep pages do not push out
+ * hot ones. Pages carry the catalog version they were rendered at and are dropped
+ * once their scope's version moves on.
+ */
+@Component
+public class RenderedPageCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersionTracker catalogVersionTracker;
+
+    @Value("${catalog.rendered.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${catalog.rendered.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${catalog.rendered.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private final LinkedHashMap<CatalogCacheKey, RenderedPage> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    // Keys that missed once recently, bounded so it cannot grow with the number of distinct pages
+    private final Map<CatalogCacheKey, Boolean> missedOnce = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CatalogCacheKey, Boolean> eldest) {
+            return size() > 4096;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public RenderedPage get(CatalogCacheKey key, Supplier<?> loader) {
+        CatalogVersion version = versionOf(key);
+        boolean admit;
+        synchronized (this) {
+            RenderedPage page = entries.get(key);
+            if (page != null) {
+                if (page.getVersion().getVersion() == version.getVersion() && page.getExpiresAt() > System.nanoTime()) {
+                    hits.incrementAndGet();
+                    return page;
+                }
+                removeEntry(key);
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            admit = missedOnce.remove(key) != null;
+            if (!admit) {
+                missedOnce.put(key, Boolean.TRUE);
+            }
+        }
+
+        // Rendered under the version read before loading, so a write that races the load only costs a re-render
+        RenderedPage page = render(loader.get(), version);
+        if (admit && page.size() <= maxBytes / 8) {
+            synchronized (this) {
+                put(key, page);
+            }
+        }
+        return page;
+    }
+
+    private CatalogVersion versionOf(CatalogCacheKey key) {
+        return switch (key.getScope()) {
+            case CATEGORY -> catalogVersionTracker.category((Long) key.getScopeValue());
+            case ALL, KEYWORD -> catalogVersionTracker.products();
+        };
+    }
+
+    private RenderedPage render(Object value, CatalogVersion version) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new APIException("Could not render page: " + e.getOriginalMessage());
+        }
+        byte[] gzip = null;
+        if (json.length >= gzipMinBytes) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            gzip = compressed.toByteArray();
+        }
+        return new RenderedPage(json, gzip, version, System.nanoTime() + ttlSeconds * 1_000_000_000L);
+    }
+
+    // Runs last, after the version tracker, and frees pages whose scope has moved on
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        dropStale();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        dropStale();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsRepriced(ProductsRepricedEvent event) {
+        dropStale();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        dropStale();
+    }
+
+    private synchronized void dropStale() {
+        Iterator<Map.Entry<CatalogCacheKey, RenderedPage>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CatalogCacheKey, RenderedPage> entry = iterator.next();
+            if (entry.getValue().getVersion().getVersion() != versionOf(entry.getKey()).getVersion()) {
+                iterator.remove();
+                bytes -= entry.getValue().size();
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized CacheStatsDTO getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        return new CacheStatsDTO("renderedPages", entries.size(), null, bytes, maxBytes, hitCount, missCount,
+                evictions.get(), expirations.get(), invalidations.get(),
+                total == 0 ? 0.0 : (double) hitCount / total);
+    }
+
+    private void put(CatalogCacheKey key, RenderedPage page) {
+        removeEntry(key);
+        entries.put(key, page);
+        bytes += page.size();
+
+        Iterator<Map.Entry<CatalogCacheKey, RenderedPage>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<CatalogCacheKey, RenderedPage> entry = eldest.next();
+            eldest.remove();
+            bytes -= entry.getValue().size();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void removeEntry(CatalogCacheKey key) {
+        RenderedPage page = entries.remove(key);
+        if (page != null) {
+            bytes -= page.size();
+        }
+    }
+}
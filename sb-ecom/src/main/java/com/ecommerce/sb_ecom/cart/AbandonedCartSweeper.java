@@ -0,0 +1,122 @@
+package com.ecommerce.sb_ecom.cart;
+
+import com.ecommerce.sb_ecom.event.CartsExpiredEvent;
+import com.ecommerce.sb_ecom.model.Cart;
+import com.ecommerce.sb_ecom.repositories.CartItemRepository;
+import com.ecommerce.sb_ecom.repositories.CartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires carts nobody has changed for cart.expiry.ttl-hours, so carts and cart_items only
+ * hold carts that may still be ordered from. Runs on the scheduler pool, walking the idle carts
+ * oldest first in small keyset batches on (last_modified, cart_id). Each batch is one short
+ * transaction that locks only its own rows, skipping carts a request is changing, and the
+ * batches are paced to cart.expiry.max-carts-per-second so a sweep never competes with
+ * shoppers for the database.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class AbandonedCartSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${cart.expiry.ttl-hours:720}")
+    private long ttlHours;
+
+    @Value("${cart.expiry.mode:ARCHIVE}")
+    private CartExpiryMode mode;
+
+    @Value("${cart.expiry.batch-size:100}")
+    private int batchSize;
+
+    @Value("${cart.expiry.max-carts-per-second:200}")
+    private int maxCartsPerSecond;
+
+    @Scheduled(fixedDelayString = "${cart.expiry.interval-seconds:300}",
+            initialDelayString = "${cart.expiry.interval-seconds:300}", timeUnit = TimeUnit.SECONDS)
+    public void sweep() {
+        long start = System.currentTimeMillis();
+        Instant cutoff = Instant.now().minusSeconds(TimeUnit.HOURS.toSeconds(ttlHours));
+        // Expired rows are gone from the next batch anyway; the position steps past the skipped ones
+        Instant lastModified = Instant.EPOCH;
+        long lastCartId = 0;
+        int expired = 0;
+        List<Cart> batch;
+        do {
+            long batchStart = System.nanoTime();
+            Instant fromModified = lastModified;
+            long fromCartId = lastCartId;
+            batch = transactionTemplate.execute(status -> expireBatch(cutoff, fromModified, fromCartId));
+            if (batch.isEmpty()) {
+                break;
+            }
+            expired += batch.size();
+            Cart last = batch.get(batch.size() - 1);
+            lastModified = last.getLastModified();
+            lastCartId = last.getCartId();
+            if (!pace(batch.size(), batchStart)) {
+                break;
+            }
+        } while (batch.size() == batchSize);
+        if (expired > 0) {
+            logger.info("Expired {} carts idle since before {} ({}) in {} ms", expired, cutoff, mode,
+                    System.currentTimeMillis() - start);
+        }
+    }
+
+    private List<Cart> expireBatch(Instant cutoff, Instant lastModified, Long lastCartId) {
+        List<Cart> carts = cartRepository.lockIdleCarts(cutoff, lastModified, lastCartId, batchSize);
+        if (carts.isEmpty()) {
+            return carts;
+        }
+        List<Long> cartIds = carts.stream().map(Cart::getCartId).toList();
+        if (mode == CartExpiryMode.ARCHIVE) {
+            cartRepository.archiveCarts(cartIds);
+            cartItemRepository.archiveByCartIds(cartIds);
+        }
+        cartItemRepository.deleteByCartIds(cartIds);
+        cartRepository.deleteCarts(cartIds);
+        eventPublisher.publishEvent(new CartsExpiredEvent(cartIds));
+        return carts;
+    }
+
+    // Sleeps off whatever is left of the time the batch is allowed at the capped rate; false when interrupted
+    private boolean pace(int expired, long batchStartNanos) {
+        long allowedNanos = TimeUnit.SECONDS.toNanos(expired) / maxCartsPerSecond;
+        long remainingNanos = allowedNanos - (System.nanoTime() - batchStartNanos);
+        if (remainingNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecommerce.sb_ecom.cart;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cart held by the write-behind engine. Only touched under the lock of the shard it
+ * lives in. Every change is also recorded as a journal record with the resulting state
+ * of the line, so replaying the records in order onto the database rows is idempotent.
+ */
+public class ActiveCart {
+
+    private final Long cartId;
+    private final String email;
+    private final Map<Long, ActiveCartLine> lines = new LinkedHashMap<>();
+    private final List<String> journalRecords = new ArrayList<>();
+
+    // Set while an order is being placed from this cart, changes are refused meanwhile
+    boolean checkingOut;
+
+    long lastAccessMillis;
+
+    ActiveCart(Long cartId, String email, List<ActiveCartLine> lines) {
+        this.cartId = cartId;
+        this.email = email;
+        lines.forEach(line -> this.lines.put(line.getProductId(), line));
+    }
+
+    public Long getCartId() {
+        return cartId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public ActiveCartLine line(Long productId) {
+        return lines.get(productId);
+    }
+
+    public List<Long> productIds() {
+        return new ArrayList<>(lines.keySet());
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public void putLine(Long productId, int quantity, double discount, double productPrice) {
+        lines.put(productId, new ActiveCartLine(productId, quantity, discount, productPrice));
+        journalRecords.add(CartJournal.putRecord(cartId, productId, quantity, discount, productPrice));
+    }
+
+    public void removeLine(Long productId) {
+        if (lines.remove(productId) != null) {
+            journalRecords.add(CartJournal.removeRecord(cartId, productId));
+        }
+    }
+
+    public void clear() {
+        lines.clear();
+        journalRecords.add(CartJournal.clearRecord(cartId));
+    }
+
+    // Kept as the sum of the lines instead of a running total, so it cannot drift
+    public double totalPrice() {
+        double total = 0.0;
+        for (ActiveCartLine line : lines.values()) {
+            total += line.getProductPrice() * line.getQuantity();
+        }
+        return total;
+    }
+
+    CartSnapshot snapshot() {
+        return new CartSnapshot(cartId, new ArrayList<>(lines.values()), totalPrice());
+    }
+
+    List<String> drainJournalRecords() {
+        if (journalRecords.isEmpty()) {
+            return List.of();
+        }
+        List<String> drained = new ArrayList<>(journalRecords);
+        journalRecords.clear();
+        return drained;
+    }
+}
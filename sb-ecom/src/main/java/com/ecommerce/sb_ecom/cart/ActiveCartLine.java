@@ -0,0 +1,16 @@
+package com.ecommerce.sb_ecom.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One line of an in-memory cart, the same values a cart_items row holds.
+ */
+@Getter
+@AllArgsConstructor
+public class ActiveCartLine {
+    private final Long productId;
+    private final int quantity;
+    private final double discount;
+    private final double productPrice;
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.sb_ecom.cart;
+
+/**
+ * What the write-behind cart engine promises about cart changes that have not been
+ * flushed to the database yet when the process dies.
+ */
+public enum CartDurability {
+
+    // Memory only: a crash loses up to one flush interval of cart changes
+    INTERVAL,
+
+    // Every change is appended to a journal that is replayed at startup; survives a process
+    // crash, but changes still in the OS page cache are lost with the machine
+    JOURNAL,
+
+    // As JOURNAL, with the journal forced to disk before the change returns; survives power
+    // loss, at the cost of an fsync per cart change
+    JOURNAL_FSYNC
+}
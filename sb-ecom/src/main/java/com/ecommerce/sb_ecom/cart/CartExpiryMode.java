@@ -0,0 +1,13 @@
+package com.ecommerce.sb_ecom.cart;
+
+/**
+ * What AbandonedCartSweeper does with a cart idle past cart.expiry.ttl-hours.
+ */
+public enum CartExpiryMode {
+
+    // Copied to cart_archive/cart_item_archive, then deleted
+    ARCHIVE,
+
+    // Deleted outright
+    DELETE
+}
@@ -0,0 +1,163 @@
+package com.ecommerce.sb_ecom.cart;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of one cart shard, split into numbered segments. The flusher seals
+ * the current segment before it snapshots the dirty carts, and deletes the sealed segments
+ * once those snapshots are committed. Whatever segments are left at startup hold changes
+ * that never reached the database and are replayed onto it. Not thread safe, every call
+ * is made under the shard lock.
+ *
+ * Records are text lines: "S cartId productId quantity discount price" for the new state
+ * of a line, "R cartId productId" for a removed line and "C cartId" for an emptied cart.
+ */
+class CartJournal {
+
+    private static final Pattern SEGMENT = Pattern.compile("shard-(\\d+)-(\\d+)\\.log");
+
+    private final Path directory;
+    private final int shard;
+    private final boolean fsync;
+    private long segment;
+    private FileChannel channel;
+
+    CartJournal(Path directory, int shard, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.shard = shard;
+        this.fsync = fsync;
+        List<Long> existing = segments();
+        this.segment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        open();
+    }
+
+    static String putRecord(Long cartId, Long productId, int quantity, double discount, double productPrice) {
+        return "S " + cartId + " " + productId + " " + quantity + " " + discount + " " + productPrice;
+    }
+
+    static String removeRecord(Long cartId, Long productId) {
+        return "R " + cartId + " " + productId;
+    }
+
+    static String clearRecord(Long cartId) {
+        return "C " + cartId;
+    }
+
+    static Long cartIdOf(String record) {
+        String[] fields = record.split(" ");
+        return Long.valueOf(fields[1]);
+    }
+
+    // Applies one record to the lines of its cart, keyed by product id
+    static void apply(String record, Map<Long, Map<Long, ActiveCartLine>> linesByCart) {
+        String[] fields = record.split(" ");
+        Map<Long, ActiveCartLine> lines = linesByCart.get(Long.valueOf(fields[1]));
+        if (lines == null) {
+            return;
+        }
+        switch (fields[0]) {
+            case "S" -> {
+                Long productId = Long.valueOf(fields[2]);
+                lines.put(productId, new ActiveCartLine(productId, Integer.parseInt(fields[3]),
+                        Double.parseDouble(fields[4]), Double.parseDouble(fields[5])));
+            }
+            case "R" -> lines.remove(Long.valueOf(fields[2]));
+            case "C" -> lines.clear();
+            default -> throw new IllegalArgumentException("Unknown cart journal record: " + record);
+        }
+    }
+
+    void append(List<String> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap((String.join("\n", records) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    // Starts a new segment and returns the number of the sealed one
+    long rotate() throws IOException {
+        channel.close();
+        long sealed = segment++;
+        open();
+        return sealed;
+    }
+
+    void deleteThrough(long sealed) throws IOException {
+        for (Long number : segments()) {
+            if (number <= sealed) {
+                Files.deleteIfExists(path(number));
+            }
+        }
+    }
+
+    // Records of the segments left by an earlier run, oldest first. A record is only complete
+    // once its newline is written, so a torn write at the end of a segment is dropped.
+    List<String> readEarlierSegments() throws IOException {
+        List<String> records = new ArrayList<>();
+        for (Long number : segments()) {
+            if (number >= segment) {
+                continue;
+            }
+            String content = Files.readString(path(number), StandardCharsets.UTF_8);
+            for (String line : content.substring(0, content.lastIndexOf('\n') + 1).split("\n")) {
+                if (isComplete(line)) {
+                    records.add(line);
+                }
+            }
+        }
+        return records;
+    }
+
+    long currentSegment() {
+        return segment;
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    private static boolean isComplete(String line) {
+        String[] fields = line.split(" ");
+        return switch (fields.length == 0 ? "" : fields[0]) {
+            case "S" -> fields.length == 6;
+            case "R" -> fields.length == 3;
+            case "C" -> fields.length == 2;
+            default -> false;
+        };
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path path(long number) {
+        return directory.resolve("shard-" + shard + "-" + number + ".log");
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> SEGMENT.matcher(file.getFileName().toString()))
+                    .filter(matcher -> matcher.matches() && Integer.parseInt(matcher.group(1)) == shard)
+                    .map(matcher -> Long.valueOf(matcher.group(2)))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
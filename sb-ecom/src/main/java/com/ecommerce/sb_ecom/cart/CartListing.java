@@ -0,0 +1,102 @@
+package com.ecommerce.sb_ecom.cart;
+
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import com.ecommerce.sb_ecom.mapper.CartMapper;
+import com.ecommerce.sb_ecom.model.Cart;
+import com.ecommerce.sb_ecom.model.CartItem;
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.CartCursorResponse;
+import com.ecommerce.sb_ecom.payload.CartDTO;
+import com.ecommerce.sb_ecom.repositories.CartRepository;
+import com.ecommerce.sb_ecom.util.KeysetCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin cart listing, one keyset page at a time: the page's carts are picked in id order with
+ * the filters applied in SQL, then their lines and products come back as plain rows in one
+ * more query. Memory and connection time are bounded by the page size, not the table.
+ */
+@Component
+public class CartListing {
+
+    private static final String SORT_BY = "cartId";
+    private static final String SORT_ORDER = "asc";
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartMapper cartMapper;
+
+    @Value("${cart.listing.max-page-size:500}")
+    private int maxPageSize;
+
+    public CartCursorResponse page(String cursor, Integer pageSize, boolean nonEmpty, Instant updatedSince, Double minTotal) {
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new APIException("Page size must be between 1 and " + maxPageSize);
+        }
+        KeysetCursor position = cursor == null ? null : KeysetCursor.decode(cursor);
+        if (position != null && !SORT_BY.equals(position.getSortBy())) {
+            throw new APIException("Invalid cursor: " + cursor);
+        }
+
+        // One extra row tells us whether another page exists without a count query
+        List<Cart> carts = cartRepository.findCartsAfter(nonEmpty, updatedSince, minTotal,
+                position == null ? null : position.getLastId(), pageSize + 1);
+        boolean lastPage = carts.size() <= pageSize;
+        if (!lastPage) {
+            carts = carts.subList(0, pageSize);
+        }
+        if (carts.isEmpty()) {
+            return new CartCursorResponse(List.of(), pageSize, null, true);
+        }
+
+        List<Long> cartIds = carts.stream().map(Cart::getCartId).toList();
+        Map<Long, List<CartViewLine>> linesByCart = new LinkedHashMap<>();
+        for (CartViewLine line : cartRepository.findCartViews(cartIds)) {
+            linesByCart.computeIfAbsent(line.getCartId(), id -> new ArrayList<>()).add(line);
+        }
+        List<CartDTO> cartDTOs = linesByCart.values().stream().map(this::toDTO).toList();
+
+        String next = null;
+        if (!lastPage) {
+            Long lastId = cartIds.get(cartIds.size() - 1);
+            next = new KeysetCursor(SORT_BY, SORT_ORDER, lastId, String.valueOf(lastId)).encode();
+        }
+        return new CartCursorResponse(cartDTOs, pageSize, next, lastPage);
+    }
+
+    // Rendered through the same mapper as a loaded cart, from transient copies of the rows of one cart
+    public CartDTO toDTO(List<CartViewLine> lines) {
+        Cart cart = new Cart();
+        cart.setCartId(lines.get(0).getCartId());
+        cart.setTotalPrice(lines.get(0).getTotalPrice());
+        for (CartViewLine line : lines) {
+            if (line.getProductId() == null) {
+                continue;
+            }
+            Product product = new Product();
+            product.setProductId(line.getProductId());
+            product.setProductName(line.getProductName());
+            product.setImage(line.getImage());
+            product.setThumbnailImage(line.getThumbnailImage());
+            product.setListingImage(line.getListingImage());
+            product.setDetailImage(line.getDetailImage());
+            product.setDescription(line.getDescription());
+            product.setPrice(line.getPrice());
+            product.setSpecialPrice(line.getSpecialPrice());
+            product.setDiscount(line.getProductDiscount());
+            cart.getCartItems().add(new CartItem(null, cart, product, line.getQuantity(),
+                    line.getDiscount(), line.getProductPrice()));
+        }
+        return cartMapper.toDTO(cart);
+    }
+}
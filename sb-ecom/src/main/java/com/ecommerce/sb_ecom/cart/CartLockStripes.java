@@ -0,0 +1,79 @@
+package com.ecommerce.sb_ecom.cart;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the changes to one cart on this instance. Carts map onto a fixed set of
+ * lock stripes by id, so there is nothing to create or clean up per cart, and two carts
+ * only wait for each other when they share a stripe. Each change runs in its own
+ * transaction while the stripe is held. Cart's version catches what the stripes cannot
+ * see (other instances, set-based statements, order placement); such a change is rolled
+ * back and run again on a fresh read, up to cart.locks.max-attempts times.
+ */
+@Component
+public class CartLockStripes {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartLockStripes.class);
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.locks.stripes:256}")
+    private int stripeCount;
+
+    @Value("${cart.locks.max-attempts:5}")
+    private int maxAttempts;
+
+    private ReentrantLock[] stripes;
+
+    @PostConstruct
+    void start() {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the change in a transaction under the cart's stripe and returns its result. The
+     * change must read the cart inside the callback, since a retry starts over from there.
+     * Throws the last OptimisticLockingFailureException once the attempts are used up.
+     */
+    public <T> T update(Long cartId, TransactionCallback<T> change) {
+        ReentrantLock lock = stripes[Math.floorMod(cartId, stripes.length)];
+        for (int attempt = 1; ; attempt++) {
+            lock.lock();
+            try {
+                return transactionTemplate.execute(change);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.debug("Cart {} changed concurrently, attempt {} of {}", cartId, attempt, maxAttempts);
+            } finally {
+                lock.unlock();
+            }
+            backOff(attempt);
+        }
+    }
+
+    // The competing writer is outside this instance; give it a moment to commit, without holding the stripe
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 1L + 5L * attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.sb_ecom.cart;
+
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detached copies of the products sitting in active carts, so a cart change only needs
+ * the database the first time a product is seen. WriteBehindCartStore evicts entries
+ * when products change.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.engine", havingValue = "write-behind")
+public class CartProductSnapshots {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${cart.write-behind.max-products:50000}")
+    private int maxProducts;
+
+    private final Map<Long, Product> products = new ConcurrentHashMap<>();
+
+    // Bumped by every eviction, a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    // Null when the product does not exist (any more)
+    public Product find(Long productId) {
+        Product product = products.get(productId);
+        if (product != null) {
+            return product;
+        }
+        long loadedAt = generation.get();
+        product = productRepository.findById(productId).map(CartProductSnapshots::copyOf).orElse(null);
+        if (product != null) {
+            cache(product, loadedAt);
+        }
+        return product;
+    }
+
+    // The ones that exist, by id; those not held yet are loaded in one query
+    public Map<Long, Product> findAll(Collection<Long> productIds) {
+        Map<Long, Product> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            Product product = products.get(productId);
+            if (product != null) {
+                found.put(productId, product);
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long loadedAt = generation.get();
+            for (Product loaded : productRepository.findAllById(missing)) {
+                Product product = copyOf(loaded);
+                found.put(product.getProductId(), product);
+                cache(product, loadedAt);
+            }
+        }
+        return found;
+    }
+
+    private void cache(Product product, long loadedAt) {
+        if (loadedAt != generation.get()) {
+            return;
+        }
+        // Crude bound, a full cache is simply refilled by the carts that are still active
+        if (products.size() >= maxProducts) {
+            products.clear();
+        }
+        products.putIfAbsent(product.getProductId(), product);
+    }
+
+    public void put(Collection<Product> loaded) {
+        loaded.forEach(product -> products.putIfAbsent(product.getProductId(), copyOf(product)));
+    }
+
+    public void evict(Collection<Long> productIds) {
+        generation.incrementAndGet();
+        productIds.forEach(products::remove);
+    }
+
+    // Current values of the products, straight from the database
+    public List<Product> reload(Collection<Long> productIds) {
+        evict(productIds);
+        List<Product> reloaded = productRepository.findAllById(productIds);
+        put(reloaded);
+        return reloaded;
+    }
+
+    // Only the columns a cart shows; the loaded entity may still belong to the request's persistence context
+    private static Product copyOf(Product product) {
+        Product copy = new Product();
+        copy.setProductId(product.getProductId());
+        copy.setProductName(product.getProductName());
+        copy.setImage(product.getImage());
+        copy.setThumbnailImage(product.getThumbnailImage());
+        copy.setListingImage(product.getListingImage());
+        copy.setDetailImage(product.getDetailImage());
+        copy.setDescription(product.getDescription());
+        copy.setQuantity(product.getQuantity());
+        copy.setPrice(product.getPrice());
+        copy.setSpecialPrice(product.getSpecialPrice());
+        copy.setDiscount(product.getDiscount());
+        return copy;
+    }
+}
@@ -0,0 +1,153 @@
+package com.ecommerce.sb_ecom.cart;
+
+import com.ecommerce.sb_ecom.event.CartsRepricedEvent;
+import com.ecommerce.sb_ecom.event.ProductPriceChangedEvent;
+import com.ecommerce.sb_ecom.payload.CartRepriceStatsDTO;
+import com.ecommerce.sb_ecom.repositories.CartItemRepository;
+import com.ecommerce.sb_ecom.repositories.CartRepository;
+import com.ecommerce.sb_ecom.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carries product price changes into the carts holding the products, off the request
+ * thread. Changed products are collected in a set, so a product changed again before
+ * the worker gets to it is repriced once. Each run takes a batch of products and walks
+ * the carts with stale lines of them in id order, one chunk of carts per transaction of
+ * set-based statements: the totals first, then the lines. The set is not persisted;
+ * at startup it is refilled from the cart lines whose price no longer matches.
+ */
+@Component
+public class CartRepriceWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartRepriceWorker.class);
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${cart.reprice.product-batch-size:100}")
+    private int productBatchSize;
+
+    @Value("${cart.reprice.chunk-size:500}")
+    private int chunkSize;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong priceChanges = new AtomicLong();
+    private final AtomicLong coalescedChanges = new AtomicLong();
+    private final AtomicLong productsRepriced = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong cartsRepriced = new AtomicLong();
+    private final AtomicLong cartItemsRepriced = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastRunMillis;
+
+    // The pending set lives only in memory, so price changes committed before a restart are found in the lines again
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPending() {
+        List<Long> productIds = cartItemRepository.findProductIdsWithStalePrices();
+        if (!productIds.isEmpty()) {
+            pending.addAll(productIds);
+            logger.info("Queued the carts of {} products with stale prices for repricing", productIds.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductPriceChanged(ProductPriceChangedEvent event) {
+        priceChanges.incrementAndGet();
+        if (!pending.add(event.getProductId())) {
+            coalescedChanges.incrementAndGet();
+        }
+    }
+
+    public CartRepriceStatsDTO getStats() {
+        return new CartRepriceStatsDTO(pending.size(), priceChanges.get(), coalescedChanges.get(),
+                productsRepriced.get(), chunks.get(), cartsRepriced.get(), cartItemsRepriced.get(),
+                failures.get(), lastRunMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.reprice.interval-ms:500}", initialDelayString = "${cart.reprice.interval-ms:500}")
+    public void reprice() {
+        long start = System.currentTimeMillis();
+        int repriced = 0;
+        List<Long> batch;
+        while (!(batch = takeBatch()).isEmpty()) {
+            try {
+                repriceBatch(batch);
+            } catch (RuntimeException e) {
+                // Chunks already committed are not stale any more, so the retry only walks what is left
+                pending.addAll(batch);
+                failures.incrementAndGet();
+                throw e;
+            }
+            productsRepriced.addAndGet(batch.size());
+            repriced += batch.size();
+        }
+        if (repriced > 0) {
+            lastRunMillis = System.currentTimeMillis() - start;
+            logger.info("Repriced the carts of {} products in {} ms", repriced, lastRunMillis);
+        }
+    }
+
+    // Removed from the set before the carts are read, so a change arriving meanwhile queues the product again
+    private List<Long> takeBatch() {
+        List<Long> batch = new ArrayList<>(productBatchSize);
+        Iterator<Long> productIds = pending.iterator();
+        while (batch.size() < productBatchSize && productIds.hasNext()) {
+            batch.add(productIds.next());
+            productIds.remove();
+        }
+        return batch;
+    }
+
+    private void repriceBatch(List<Long> productIds) {
+        long lastCartId = 0;
+        List<Long> cartIds;
+        do {
+            cartIds = cartItemRepository.findCartIdsWithStalePrices(productIds, lastCartId, Limit.of(chunkSize));
+            if (!cartIds.isEmpty()) {
+                repriceChunk(productIds, cartIds);
+                lastCartId = cartIds.get(cartIds.size() - 1);
+            }
+        } while (cartIds.size() == chunkSize);
+        eventPublisher.publishEvent(new CartsRepricedEvent(List.copyOf(productIds)));
+    }
+
+    private void repriceChunk(List<Long> productIds, List<Long> cartIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.lockPrices(productIds);
+            cartsRepriced.addAndGet(cartRepository.adjustTotalsForRepricedProductsInCarts(productIds, cartIds));
+            cartItemsRepriced.addAndGet(cartItemRepository.repriceCartItemsInCarts(productIds, cartIds));
+        });
+        chunks.incrementAndGet();
+    }
+}
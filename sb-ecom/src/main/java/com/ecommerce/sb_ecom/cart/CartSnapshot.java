@@ -0,0 +1,18 @@
+package com.ecommerce.sb_ecom.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Copy of an in-memory cart taken under its shard lock, written to carts/cart_items
+ * and rendered without holding the lock.
+ */
+@Getter
+@AllArgsConstructor
+public class CartSnapshot {
+    private final Long cartId;
+    private final List<ActiveCartLine> lines;
+    private final double totalPrice;
+}
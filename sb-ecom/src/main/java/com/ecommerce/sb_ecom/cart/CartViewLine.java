@@ -0,0 +1,28 @@
+package com.ecommerce.sb_ecom.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One line of a cart as read for the cart view, with the product columns the view shows.
+ * An empty cart is a single row whose line and product columns are all null.
+ */
+@Getter
+@AllArgsConstructor
+public class CartViewLine {
+    private final Long cartId;
+    private final Double totalPrice;
+    private final Long productId;
+    private final String productName;
+    private final String image;
+    private final String thumbnailImage;
+    private final String listingImage;
+    private final String detailImage;
+    private final String description;
+    private final Double price;
+    private final Double specialPrice;
+    private final Double productDiscount;
+    private final Integer quantity;
+    private final Double discount;
+    private final Double productPrice;
+}
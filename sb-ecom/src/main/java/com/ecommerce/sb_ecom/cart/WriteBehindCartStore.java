@@ -0,0 +1,583 @@
+package com.ecommerce.sb_ecom.cart;
+
+import com.ecommerce.sb_ecom.event.CartsExpiredEvent;
+import com.ecommerce.sb_ecom.event.CartsRepricedEvent;
+import com.ecommerce.sb_ecom.event.CategoryDeletedEvent;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductsRepricedEvent;
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import com.ecommerce.sb_ecom.exceptions.ResourceNotFoundException;
+import com.ecommerce.sb_ecom.model.Cart;
+import com.ecommerce.sb_ecom.model.CartItem;
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.model.User;
+import com.ecommerce.sb_ecom.repositories.CartRepository;
+import com.ecommerce.sb_ecom.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind cart engine (cart.engine=write-behind). Active carts live in memory,
+ * sharded by the owner's email, and every change is applied there under the shard lock.
+ * A background flusher writes the dirty carts to carts/cart_items in JDBC batches every
+ * cart.write-behind.flush-interval-ms, and placing an order writes the cart first. What
+ * survives a crash in between is set by cart.write-behind.durability, see
+ * {@link CartDurability}. Set-based catalog changes that touch cart rows (repricing,
+ * product and category deletes) are mirrored onto the active carts from their events.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.engine", havingValue = "write-behind")
+public class WriteBehindCartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartProductSnapshots productSnapshots;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.write-behind.shards:64}")
+    private int shardCount;
+
+    @Value("${cart.write-behind.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${cart.write-behind.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${cart.write-behind.idle-evict-seconds:1800}")
+    private long idleEvictSeconds;
+
+    @Value("${cart.write-behind.durability:JOURNAL}")
+    private CartDurability durability;
+
+    @Value("${cart.write-behind.journal-dir:cart-journal}")
+    private String journalDirectory;
+
+    private Shard[] shards;
+
+    // Neither changes for a user or a cart, so they are resolved once
+    private final Map<String, String> emailsByUserName = new ConcurrentHashMap<>();
+    private final Map<Long, String> emailsByCartId = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Held from taking the snapshots to deleting the journal segments, so flushes of a shard never overlap
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private final Map<String, ActiveCart> carts = new HashMap<>();
+        private final Set<ActiveCart> dirty = new LinkedHashSet<>();
+        private CartJournal journal;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+        if (durability != CartDurability.INTERVAL) {
+            Path directory = Paths.get(journalDirectory);
+            Files.createDirectories(directory);
+            for (int i = 0; i < shardCount; i++) {
+                shards[i].journal = new CartJournal(directory, i, durability == CartDurability.JOURNAL_FSYNC);
+            }
+            replayJournals();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // A clean shutdown leaves nothing behind to replay
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        flushAll();
+        for (Shard shard : shards) {
+            if (shard.journal != null) {
+                shard.journal.close();
+            }
+        }
+    }
+
+    public String emailOf(String userName) {
+        return emailsByUserName.computeIfAbsent(userName, name -> userRepository.findByUserName(name)
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + name))
+                .getEmail());
+    }
+
+    /**
+     * Applies a change to the user's cart, creating the cart on first use. The change has to
+     * validate before it modifies anything; an exception it throws reaches the caller.
+     */
+    public CartSnapshot change(String userName, Consumer<ActiveCart> change) {
+        String email = emailOf(userName);
+        return withCart(email, () -> loadOrCreate(userName, email), change, true);
+    }
+
+    public CartSnapshot changeById(Long cartId, Consumer<ActiveCart> change) {
+        String email = emailsByCartId.get(cartId);
+        if (email == null) {
+            Cart cart = cartRepository.findCartWithItemsById(cartId);
+            if (cart == null) {
+                throw new ResourceNotFoundException("Cart", "cartId", cartId);
+            }
+            email = cart.getUser().getEmail();
+            return withCart(email, () -> cart, change, true);
+        }
+        String owner = email;
+        return withCart(email, () -> cartRepository.findCartWithItemsByEmail(owner), change, true);
+    }
+
+    // Null when the user has no cart
+    public CartSnapshot view(String email) {
+        return withCart(email, () -> cartRepository.findCartWithItemsByEmail(email), cart -> { }, false);
+    }
+
+    /**
+     * Writes the user's cart in the caller's transaction, which is about to read it to place
+     * an order, and refuses changes to it until that transaction completes. On commit the
+     * order has emptied the cart rows, so the in-memory cart is emptied as well. The cart
+     * stays dirty meanwhile: flushes skip it, and keep the journal segments holding its
+     * changes until the order's outcome is known.
+     */
+    public void prepareCheckout(String email) {
+        Shard shard = shardOf(email);
+        ActiveCart cart;
+        CartSnapshot snapshot = null;
+        // A flush already holding an older snapshot of the cart commits it before this one is taken
+        shard.flushLock.lock();
+        shard.lock.lock();
+        try {
+            cart = shard.carts.get(email);
+            if (cart == null) {
+                return;
+            }
+            if (cart.checkingOut) {
+                throw new APIException("An order is already being placed from this cart.");
+            }
+            cart.checkingOut = true;
+            if (shard.dirty.contains(cart)) {
+                snapshot = cart.snapshot();
+            }
+        } finally {
+            shard.lock.unlock();
+            shard.flushLock.unlock();
+        }
+
+        boolean written = false;
+        try {
+            if (snapshot != null) {
+                cartRepository.saveSnapshots(List.of(snapshot));
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    finishCheckout(shard, cart, status == STATUS_COMMITTED);
+                }
+            });
+            written = true;
+        } finally {
+            if (!written) {
+                finishCheckout(shard, cart, false);
+            }
+        }
+    }
+
+    // Either way the next flush writes the cart, emptied or as it was, and only then drops its journal segments
+    private void finishCheckout(Shard shard, ActiveCart cart, boolean ordered) {
+        shard.lock.lock();
+        try {
+            cart.checkingOut = false;
+            if (ordered) {
+                cart.clear();
+                append(shard, cart.drainJournalRecords());
+            }
+            shard.dirty.add(cart);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes every dirty cart on the flusher thread and waits for it, for callers about to
+     * read the tables directly.
+     */
+    public void flushNow() {
+        ScheduledExecutorService executor = flusher;
+        if (executor == null) {
+            flushAll();
+            return;
+        }
+        try {
+            executor.submit(this::flushAll).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new APIException("Interrupted while writing the active carts.");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void flushAll() {
+        for (Shard shard : shards) {
+            flush(shard);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flushAll();
+            evictIdle();
+        } catch (RuntimeException e) {
+            logger.warn("Cart flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void flush(Shard shard) {
+        shard.flushLock.lock();
+        try {
+            flushLocked(shard);
+        } finally {
+            shard.flushLock.unlock();
+        }
+    }
+
+    private void flushLocked(Shard shard) {
+        List<ActiveCart> carts = new ArrayList<>();
+        List<CartSnapshot> snapshots = new ArrayList<>();
+        long sealed = -1;
+        boolean complete;
+        shard.lock.lock();
+        try {
+            if (shard.dirty.isEmpty()) {
+                return;
+            }
+            sealed = rotate(shard);
+            for (Iterator<ActiveCart> dirty = shard.dirty.iterator(); dirty.hasNext(); ) {
+                ActiveCart cart = dirty.next();
+                // Its checkout writes it, and puts it back here if the order fails
+                if (!cart.checkingOut) {
+                    carts.add(cart);
+                    snapshots.add(cart.snapshot());
+                    dirty.remove();
+                }
+            }
+            complete = shard.dirty.isEmpty();
+        } finally {
+            shard.lock.unlock();
+        }
+
+        int written = 0;
+        try {
+            while (written < snapshots.size()) {
+                List<CartSnapshot> batch = snapshots.subList(written, Math.min(written + flushBatchSize, snapshots.size()));
+                transactionTemplate.executeWithoutResult(status -> cartRepository.saveSnapshots(batch));
+                written += batch.size();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush {} carts, keeping them for the next flush: {}", snapshots.size() - written, e.getMessage());
+            shard.lock.lock();
+            try {
+                shard.dirty.addAll(carts.subList(written, carts.size()));
+            } finally {
+                shard.lock.unlock();
+            }
+            return;
+        }
+
+        // The sealed segments only go once every change they hold is in the database
+        if (complete && sealed >= 0) {
+            shard.lock.lock();
+            try {
+                shard.journal.deleteThrough(sealed);
+            } catch (IOException e) {
+                logger.warn("Could not delete flushed cart journal segments: {}", e.getMessage());
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(idleEvictSeconds);
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (Iterator<ActiveCart> carts = shard.carts.values().iterator(); carts.hasNext(); ) {
+                    ActiveCart cart = carts.next();
+                    if (cart.lastAccessMillis < cutoff && !cart.checkingOut && !shard.dirty.contains(cart)) {
+                        carts.remove();
+                        emailsByCartId.remove(cart.getCartId());
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    // Looks the cart up and changes it under one lock acquisition, so an eviction cannot slip in between
+    private CartSnapshot withCart(String email, Supplier<Cart> loader, Consumer<ActiveCart> change, boolean modifies) {
+        Shard shard = shardOf(email);
+        ActiveCart loaded = null;
+        while (true) {
+            shard.lock.lock();
+            try {
+                ActiveCart cart = shard.carts.get(email);
+                if (cart == null && loaded != null) {
+                    cart = loaded;
+                    shard.carts.put(email, cart);
+                    emailsByCartId.put(cart.getCartId(), email);
+                }
+                if (cart != null) {
+                    if (modifies && cart.checkingOut) {
+                        throw new APIException("An order is being placed from this cart, please try again once it is done.");
+                    }
+                    cart.lastAccessMillis = System.currentTimeMillis();
+                    try {
+                        change.accept(cart);
+                    } finally {
+                        List<String> records = cart.drainJournalRecords();
+                        if (!records.isEmpty()) {
+                            append(shard, records);
+                            shard.dirty.add(cart);
+                        }
+                    }
+                    return cart.snapshot();
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            // Not active: read it outside the lock, then try again
+            Cart entity = loader.get();
+            if (entity == null) {
+                return null;
+            }
+            loaded = toActiveCart(entity, email);
+        }
+    }
+
+    private Cart loadOrCreate(String userName, String email) {
+        Cart cart = cartRepository.findCartWithItemsByEmail(email);
+        if (cart != null) {
+            return cart;
+        }
+        User user = userRepository.findByUserName(userName)
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + userName));
+        Cart newCart = new Cart();
+        newCart.setTotalPrice(0.00);
+        newCart.setUser(user);
+        try {
+            return cartRepository.save(newCart);
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent first request of the same user
+            return cartRepository.findCartWithItemsByEmail(email);
+        }
+    }
+
+    private ActiveCart toActiveCart(Cart cart, String email) {
+        List<ActiveCartLine> lines = new ArrayList<>();
+        List<Product> products = new ArrayList<>();
+        for (CartItem item : cart.getCartItems()) {
+            lines.add(new ActiveCartLine(item.getProduct().getProductId(), item.getQuantity(),
+                    item.getDiscount(), item.getProductPrice()));
+            products.add(item.getProduct());
+        }
+        productSnapshots.put(products);
+        return new ActiveCart(cart.getCartId(), email, lines);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Long> productIds = List.of(event.getProductId());
+        productSnapshots.evict(productIds);
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.DELETED) {
+            changeActiveCarts(productIds, (cart, productId) -> cart.removeLine(productId));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        productSnapshots.evict(event.getProductIds());
+        changeActiveCarts(event.getProductIds(), (cart, productId) -> cart.removeLine(productId));
+    }
+
+    // The cart rows were repriced in the database already; the active carts get the same prices
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsRepriced(ProductsRepricedEvent event) {
+        repriceActiveCarts(event.getProductIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartsRepriced(CartsRepricedEvent event) {
+        repriceActiveCarts(event.getProductIds());
+    }
+
+    private void repriceActiveCarts(List<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        productSnapshots.reload(productIds).forEach(product -> products.put(product.getProductId(), product));
+        changeActiveCarts(products.keySet(), (cart, productId) -> {
+            ActiveCartLine line = cart.line(productId);
+            Product product = products.get(productId);
+            cart.putLine(productId, line.getQuantity(), product.getDiscount(), product.getSpecialPrice());
+        });
+    }
+
+    // The rows are gone; a cart still held here would be flushed into nothing, the user starts a new one
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartsExpired(CartsExpiredEvent event) {
+        for (Long cartId : event.getCartIds()) {
+            String email = emailsByCartId.remove(cartId);
+            if (email == null) {
+                continue;
+            }
+            Shard shard = shardOf(email);
+            shard.lock.lock();
+            try {
+                ActiveCart cart = shard.carts.get(email);
+                if (cart != null && cart.getCartId().equals(cartId)) {
+                    shard.carts.remove(email);
+                    shard.dirty.remove(cart);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    // Walks every active cart line, which is cheaper than keeping a product to carts index current
+    private void changeActiveCarts(Collection<Long> productIds, LineChange change) {
+        Set<Long> affected = new HashSet<>(productIds);
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (ActiveCart cart : shard.carts.values()) {
+                    for (Long productId : cart.productIds()) {
+                        if (affected.contains(productId)) {
+                            change.apply(cart, productId);
+                        }
+                    }
+                    List<String> records = cart.drainJournalRecords();
+                    if (!records.isEmpty()) {
+                        append(shard, records);
+                        shard.dirty.add(cart);
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineChange {
+        void apply(ActiveCart cart, Long productId);
+    }
+
+    // The change is already applied in memory and will be flushed; only its crash safety is lost
+    private void append(Shard shard, List<String> records) {
+        if (shard.journal == null || records.isEmpty()) {
+            return;
+        }
+        try {
+            shard.journal.append(records);
+        } catch (IOException e) {
+            logger.error("Could not journal cart change, it is kept in memory until the next flush: {}", e.getMessage());
+        }
+    }
+
+    private long rotate(Shard shard) {
+        if (shard.journal == null) {
+            return -1;
+        }
+        try {
+            return shard.journal.rotate();
+        } catch (IOException e) {
+            logger.warn("Could not rotate cart journal: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    // Writes the changes an earlier run journaled but never flushed, before the first request
+    private void replayJournals() throws IOException {
+        List<String> records = new ArrayList<>();
+        for (Shard shard : shards) {
+            records.addAll(shard.journal.readEarlierSegments());
+        }
+        if (!records.isEmpty()) {
+            Set<Long> cartIds = new LinkedHashSet<>();
+            records.forEach(record -> cartIds.add(CartJournal.cartIdOf(record)));
+            Integer replayed = transactionTemplate.execute(status -> {
+                Map<Long, List<ActiveCartLine>> current = cartRepository.findLines(cartIds);
+                Map<Long, Map<Long, ActiveCartLine>> linesByCart = new LinkedHashMap<>();
+                for (Cart cart : cartRepository.findAllById(cartIds)) {
+                    Map<Long, ActiveCartLine> lines = new LinkedHashMap<>();
+                    current.getOrDefault(cart.getCartId(), List.of()).forEach(line -> lines.put(line.getProductId(), line));
+                    linesByCart.put(cart.getCartId(), lines);
+                }
+                records.forEach(record -> CartJournal.apply(record, linesByCart));
+                List<CartSnapshot> snapshots = new ArrayList<>();
+                linesByCart.forEach((cartId, lines) -> snapshots.add(
+                        new ActiveCart(cartId, null, new ArrayList<>(lines.values())).snapshot()));
+                cartRepository.saveSnapshots(snapshots);
+                return snapshots.size();
+            });
+            logger.info("Replayed {} journaled cart changes onto {} carts", records.size(), replayed);
+        }
+        for (Shard shard : shards) {
+            shard.journal.deleteThrough(shard.journal.currentSegment() - 1);
+        }
+    }
+
+    private Shard shardOf(String email) {
+        return shards[Math.floorMod(email.hashCode(), shards.length)];
+    }
+}
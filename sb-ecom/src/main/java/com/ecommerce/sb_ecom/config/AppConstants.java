@@ -1,9 +1,19 @@
 package com.ecommerce.sb_ecom.config;
 
+import java.util.List;
+
 public class AppConstants {
     public static final  String PAGE_NUMBER="0";
     public static final String PAGE_SIZE = "50";
     public static final String SORT_CATEGORIES_BY = "categoryId";
     public static final String SORT_DIR = "asc";
     public static final String SORT_PRODUCTS_BY = "productId";
+    public static final String WITH_TOTALS = "true";
+    public static final String SUGGEST_LIMIT = "10";
+
+    public static final List<String> PRODUCT_SORT_FIELDS = List.of("productId", "productName", "price", "specialPrice", "discount", "quantity");
+    public static final List<String> CATEGORY_SORT_FIELDS = List.of("categoryId", "categoryName");
+
+    public static final String DEFAULT_IMAGE = "default.png";
+    public static final String IMAGE_URL_PREFIX = "/images/";
 }
@@ -0,0 +1,78 @@
+package com.ecommerce.sb_ecom.config;
+
+import com.ecommerce.sb_ecom.cache.CatalogVersion;
+import com.ecommerce.sb_ecom.cache.CatalogVersionTracker;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Conditional GET for the public catalog. Tags every listing with the catalog version
+ * of its scope and answers a matching If-None-Match (or If-Modified-Since) with 304
+ * before the controller runs, so a revalidation costs no query.
+ */
+@Component
+public class CatalogETagInterceptor implements HandlerInterceptor {
+
+    private static final String CATEGORY_PRODUCTS = "/api/public/categories/{categoryId}/products";
+    private static final String CATEGORIES = "/api/public/categories";
+    private static final String PRODUCTS = "/api/public/products";
+
+    @Autowired
+    private CatalogVersionTracker catalogVersionTracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        CatalogVersion version = versionFor(request);
+        if (version == null) {
+            return true;
+        }
+        // Shared caches may keep the page but have to revalidate it, which also re-checks authentication
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePublic().getHeaderValue());
+
+        // A client holding the gzip-encoded rendering revalidates with that representation's tag
+        String eTag = version.getETag();
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(version.getGzipETag())) {
+            eTag = version.getGzipETag();
+        }
+        return !new ServletWebRequest(request, response).checkNotModified(eTag, version.getLastModified());
+    }
+
+    @SuppressWarnings("unchecked")
+    private CatalogVersion versionFor(HttpServletRequest request) {
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return null;
+        }
+        if (pattern.startsWith(CATEGORY_PRODUCTS)) {
+            Map<String, String> variables =
+                    (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            try {
+                return catalogVersionTracker.category(Long.valueOf(variables.get("categoryId")));
+            } catch (NumberFormatException e) {
+                // Let the controller reject the id
+                return null;
+            }
+        }
+        if (pattern.startsWith(CATEGORIES)) {
+            return catalogVersionTracker.categories();
+        }
+        if (pattern.startsWith(PRODUCTS)) {
+            return catalogVersionTracker.products();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.sb_ecom.controller;
+
+import com.ecommerce.sb_ecom.cache.CartViewCache;
+import com.ecommerce.sb_ecom.cache.ProductCatalogCache;
+import com.ecommerce.sb_ecom.cache.RenderedPageCache;
+import com.ecommerce.sb_ecom.payload.CacheStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class CacheController {
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private RenderedPageCache renderedPageCache;
+
+    @Autowired
+    private CartViewCache cartViewCache;
+
+    @GetMapping("/admin/cache/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats(){
+        List<CacheStatsDTO> stats = List.of(productCatalogCache.getStats(), renderedPageCache.getStats(),
+                cartViewCache.getStats());
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+}
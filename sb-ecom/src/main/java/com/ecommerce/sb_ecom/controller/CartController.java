@@ -1,9 +1,11 @@
 package com.ecommerce.sb_ecom.controller;
 
 
-import com.ecommerce.sb_ecom.model.Cart;
+import com.ecommerce.sb_ecom.cart.CartRepriceWorker;
+import com.ecommerce.sb_ecom.config.AppConstants;
+import com.ecommerce.sb_ecom.payload.CartCursorResponse;
 import com.ecommerce.sb_ecom.payload.CartDTO;
-import com.ecommerce.sb_ecom.repositories.CartRepository;
+import com.ecommerce.sb_ecom.payload.CartRepriceStatsDTO;
 import com.ecommerce.sb_ecom.service.CartService;
 import com.ecommerce.sb_ecom.util.AuthUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api")
@@ -21,10 +23,10 @@ public class CartController {
     AuthUtil authUtil;
 
     @Autowired
-    CartRepository cartRepository;
+    private CartService cartService;
 
     @Autowired
-    private CartService cartService;
+    private CartRepriceWorker cartRepriceWorker;
 
     @PostMapping("/carts/products/{productId}/quantity/{quantity}")
     public ResponseEntity<CartDTO> addProductToCart(@PathVariable Long productId, @PathVariable Integer quantity){
@@ -33,17 +35,25 @@ public class CartController {
     }
 
     @GetMapping("/carts")
-    public ResponseEntity<List<CartDTO>> getCarts() {
-        List<CartDTO> cartDTOs = cartService.getAllCarts();
-        return new ResponseEntity<List<CartDTO>>(cartDTOs, HttpStatus.FOUND);
+    public ResponseEntity<CartCursorResponse> getCarts(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
+            @RequestParam(name = "nonEmpty", defaultValue = "false", required = false) boolean nonEmpty,
+            @RequestParam(name = "updatedSince", required = false) Instant updatedSince,
+            @RequestParam(name = "minTotal", required = false) Double minTotal) {
+        CartCursorResponse carts = cartService.getCartsByCursor(cursor, pageSize, nonEmpty, updatedSince, minTotal);
+        return new ResponseEntity<>(carts, HttpStatus.OK);
+    }
+
+    @GetMapping("/admin/carts/reprice/stats")
+    public ResponseEntity<CartRepriceStatsDTO> getCartRepriceStats() {
+        return new ResponseEntity<>(cartRepriceWorker.getStats(), HttpStatus.OK);
     }
 
     @GetMapping("/carts/users/cart")
     public ResponseEntity<CartDTO> getCartById(){
         String emailId = authUtil.loggedInEmail();
-        Cart cart = cartRepository.findCartByEmail(emailId);
-        Long cartId = cart.getCartId();
-        CartDTO cartDTO = cartService.getCart(emailId, cartId);
+        CartDTO cartDTO = cartService.getUserCart(emailId);
         return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.OK);
     }
 
@@ -3,6 +3,7 @@ package com.ecommerce.sb_ecom.controller;
 
 import com.ecommerce.sb_ecom.config.AppConstants;
 import com.ecommerce.sb_ecom.model.Category;
+import com.ecommerce.sb_ecom.payload.CategoryCursorResponse;
 import com.ecommerce.sb_ecom.payload.CategoryDTO;
 import com.ecommerce.sb_ecom.payload.CategoryResponse;
 import com.ecommerce.sb_ecom.service.CategoryService;
@@ -35,6 +36,16 @@ public class CategoryController {
        return new ResponseEntity<>(categories,HttpStatus.OK);
     }
 
+    @GetMapping("/public/categories/cursor")
+    public ResponseEntity<CategoryCursorResponse> getCategoriesByCursor(
+            @RequestParam(name = "cursor",required = false) String cursor,
+            @RequestParam(name = "pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
+            @RequestParam(name = "sortBy",defaultValue = AppConstants.SORT_CATEGORIES_BY,required = false) String sortBy,
+            @RequestParam(name = "sortOrder",defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder){
+        CategoryCursorResponse categories = categoryService.getCategoriesByCursor(cursor,pageSize,sortBy,sortOrder);
+        return new ResponseEntity<>(categories,HttpStatus.OK);
+    }
+
     @PostMapping("/public/categories")
     public ResponseEntity<CategoryDTO> createCategory(@Valid @RequestBody CategoryDTO categoryDTO){
       CategoryDTO savedCategory = categoryService.createCategory(categoryDTO);
@@ -0,0 +1,24 @@
+package com.ecommerce.sb_ecom.controller;
+
+import com.ecommerce.sb_ecom.image.ImageFileHandler;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+public class ImageController {
+
+    @Autowired
+    private ImageFileHandler imageFileHandler;
+
+    @RequestMapping(value = "/images/{fileName}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getImage(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        imageFileHandler.serve(fileName, request, response);
+    }
+}
@@ -1,18 +1,40 @@
 package com.ecommerce.sb_ecom.controller;
 
+import com.ecommerce.sb_ecom.cache.CatalogCacheKey;
+import com.ecommerce.sb_ecom.cache.RenderedPage;
+import com.ecommerce.sb_ecom.cache.RenderedPageCache;
 import com.ecommerce.sb_ecom.config.AppConstants;
+import com.ecommerce.sb_ecom.exporter.ProductExportFormat;
+import com.ecommerce.sb_ecom.importer.ProductImportFormat;
 import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.ProductCursorResponse;
 import com.ecommerce.sb_ecom.payload.ProductDTO;
+import com.ecommerce.sb_ecom.payload.ProductFacetResponse;
+import com.ecommerce.sb_ecom.payload.ProductImportResponse;
+import com.ecommerce.sb_ecom.payload.ProductRepriceRequest;
+import com.ecommerce.sb_ecom.payload.ProductRepriceResponse;
 import com.ecommerce.sb_ecom.payload.ProductResponse;
+import com.ecommerce.sb_ecom.payload.SuggestionDTO;
+import com.ecommerce.sb_ecom.search.FacetFilter;
+import com.ecommerce.sb_ecom.service.ProductExportService;
+import com.ecommerce.sb_ecom.service.ProductImportService;
+import com.ecommerce.sb_ecom.service.ProductRepricingService;
 import com.ecommerce.sb_ecom.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api")
@@ -21,6 +43,18 @@ public class ProductController {
     @Autowired
     ProductService productService;
 
+    @Autowired
+    ProductImportService productImportService;
+
+    @Autowired
+    ProductRepricingService productRepricingService;
+
+    @Autowired
+    ProductExportService productExportService;
+
+    @Autowired
+    RenderedPageCache renderedPageCache;
+
     @PostMapping("/admin/categories/{categoryId}/product")
     public ResponseEntity<ProductDTO> addProduct(@Valid  @RequestBody ProductDTO product,
                                                 @PathVariable Long categoryId){
@@ -29,27 +63,110 @@ public class ProductController {
         return new ResponseEntity<>(productDTO, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/admin/categories/{categoryId}/products/import",
+            consumes = {ProductImportFormat.CSV_MEDIA_TYPE, ProductImportFormat.NDJSON_MEDIA_TYPE})
+    public ResponseEntity<ProductImportResponse> importProducts(@PathVariable Long categoryId,
+                                                                @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                InputStream body){
+        ProductImportResponse importResponse = productImportService.importProducts(categoryId, body,
+                ProductImportFormat.fromContentType(contentType));
+        return new ResponseEntity<>(importResponse, HttpStatus.OK);
+    }
+
+    // Streams the whole catalog, gzip-encoded on the fly when the client accepts it
+    @GetMapping("/admin/products/export")
+    public void exportProducts(@RequestParam(name="format",defaultValue = "ndjson",required = false) String format,
+                               @RequestParam(name="categoryId",required = false) Long categoryId,
+                               @RequestParam(name="updatedSince",required = false) Instant updatedSince,
+                               @RequestHeader(name=HttpHeaders.ACCEPT_ENCODING,required = false) String acceptEncoding,
+                               HttpServletResponse response) throws IOException {
+        ProductExportFormat exportFormat = ProductExportFormat.fromName(format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        productExportService.exportProducts(categoryId, updatedSince, exportFormat, () -> {
+            response.setContentType(exportFormat.getMediaType());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"products." + exportFormat.getFileExtension() + "\"");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                return new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+            }
+            return response.getOutputStream();
+        });
+    }
+
+    // Hot listing pages are served as pre-rendered bytes, see RenderedPageCache
     @GetMapping("/public/products")
-    public ResponseEntity<ProductResponse> getAllProducts(
+    public void getAllProducts(
             @RequestParam(name="pageNumber",defaultValue = AppConstants.PAGE_NUMBER,required = false) Integer pageNumber,
             @RequestParam(name="pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
             @RequestParam(name="sortBy",defaultValue = AppConstants.SORT_PRODUCTS_BY,required = false) String sortBy,
+            @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder,
+            @RequestParam(name="withTotals",defaultValue = AppConstants.WITH_TOTALS,required = false) Boolean withTotals,
+            HttpServletRequest request, HttpServletResponse response
+    ) throws IOException {
+        RenderedPage page = renderedPageCache.get(CatalogCacheKey.all(pageNumber,pageSize,sortBy,sortOrder,withTotals),
+                () -> productService.getAllProducts(pageNumber,pageSize,sortBy,sortOrder,withTotals));
+        page.writeTo(request, response);
+    }
+
+    @GetMapping("/public/products/facets")
+    public ResponseEntity<ProductFacetResponse> getProductsByFacets(
+            @RequestParam(name="categoryId",required = false) List<Long> categoryIds,
+            @RequestParam(name="priceBand",required = false) List<String> priceBands,
+            @RequestParam(name="discountBand",required = false) List<String> discountBands,
+            @RequestParam(name="inStock",required = false) Boolean inStock,
+            @RequestParam(name="pageNumber",defaultValue = AppConstants.PAGE_NUMBER,required = false) Integer pageNumber,
+            @RequestParam(name="pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize
+    ){
+        FacetFilter filter = new FacetFilter(categoryIds, priceBands, discountBands, inStock);
+        ProductFacetResponse facetResponse = productService.filterProducts(filter,pageNumber,pageSize);
+        return new ResponseEntity<>(facetResponse,HttpStatus.OK);
+    }
+
+    @GetMapping("/public/products/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggestProducts(
+            @RequestParam(name="q",required = false) String query,
+            @RequestParam(name="limit",defaultValue = AppConstants.SUGGEST_LIMIT,required = false) Integer limit
+    ){
+        List<SuggestionDTO> suggestions = productService.suggest(query,limit);
+        return new ResponseEntity<>(suggestions,HttpStatus.OK);
+    }
+
+    @GetMapping("/public/products/cursor")
+    public ResponseEntity<ProductCursorResponse> getProductsByCursor(
+            @RequestParam(name="cursor",required = false) String cursor,
+            @RequestParam(name="pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
+            @RequestParam(name="sortBy",defaultValue = AppConstants.SORT_PRODUCTS_BY,required = false) String sortBy,
             @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder
     ){
-        ProductResponse productResponse = productService.getAllProducts(pageNumber,pageSize,sortBy,sortOrder);
-        return new ResponseEntity<>(productResponse,HttpStatus.OK);
+        ProductCursorResponse productCursorResponse = productService.getProductsByCursor(null,cursor,pageSize,sortBy,sortOrder);
+        return new ResponseEntity<>(productCursorResponse,HttpStatus.OK);
     }
 
+    @GetMapping("/public/categories/{categoryId}/products/cursor")
+    public ResponseEntity<ProductCursorResponse> getProductsByCategoryAndCursor(@PathVariable Long categoryId,
+                                                                               @RequestParam(name="cursor",required = false) String cursor,
+                                                                               @RequestParam(name="pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
+                                                                               @RequestParam(name="sortBy",defaultValue = AppConstants.SORT_PRODUCTS_BY,required = false) String sortBy,
+                                                                               @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder
+    ){
+        ProductCursorResponse productCursorResponse = productService.getProductsByCursor(categoryId,cursor,pageSize,sortBy,sortOrder);
+        return new ResponseEntity<>(productCursorResponse,HttpStatus.OK);
+    }
 
   @GetMapping("/public/categories/{categoryId}/products")
-    public ResponseEntity<ProductResponse> getProductsByCategory(@PathVariable Long categoryId,
+    public void getProductsByCategory(@PathVariable Long categoryId,
                                                                  @RequestParam(name="pageNumber",defaultValue = AppConstants.PAGE_NUMBER,required = false) Integer pageNumber,
                                                                  @RequestParam(name="pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
                                                                  @RequestParam(name="sortBy",defaultValue = AppConstants.SORT_PRODUCTS_BY,required = false) String sortBy,
-                                                                 @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder
-  ){
-        ProductResponse productResponse = productService.searchByCategory(categoryId,pageNumber,pageSize,sortBy,sortOrder);
-        return new ResponseEntity<>(productResponse,HttpStatus.OK);
+                                                                 @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder,
+                                                                 @RequestParam(name="withTotals",defaultValue = AppConstants.WITH_TOTALS,required = false) Boolean withTotals,
+                                                                 HttpServletRequest request, HttpServletResponse response
+  ) throws IOException {
+        RenderedPage page = renderedPageCache.get(CatalogCacheKey.category(categoryId,pageNumber,pageSize,sortBy,sortOrder,withTotals),
+                () -> productService.searchByCategory(categoryId,pageNumber,pageSize,sortBy,sortOrder,withTotals));
+        page.writeTo(request, response);
     }
 
     @GetMapping("/public/products/keyword/{keyword}")
@@ -57,10 +174,11 @@ public class ProductController {
                                                                 @RequestParam(name="pageNumber",defaultValue = AppConstants.PAGE_NUMBER,required = false) Integer pageNumber,
                                                                 @RequestParam(name="pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
                                                                 @RequestParam(name="sortBy",defaultValue = AppConstants.SORT_PRODUCTS_BY,required = false) String sortBy,
-                                                                @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder
+                                                                @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder,
+                                                                @RequestParam(name="withTotals",defaultValue = AppConstants.WITH_TOTALS,required = false) Boolean withTotals
     ){
-        ProductResponse productResponse = productService.searchProductByKeyword(keyword,pageNumber,pageSize,sortBy,sortOrder);
-        return  new ResponseEntity<>(productResponse,HttpStatus.FOUND);
+        ProductResponse productResponse = productService.searchProductByKeyword(keyword,pageNumber,pageSize,sortBy,sortOrder,withTotals);
+        return  new ResponseEntity<>(productResponse,HttpStatus.OK);
     }
 
     @PutMapping("/admin/products/{productId}")
@@ -69,6 +187,12 @@ public class ProductController {
         return  new ResponseEntity<>(updatedProduct,HttpStatus.OK);
     }
 
+    @PutMapping("/admin/products/prices")
+    public ResponseEntity<ProductRepriceResponse> repriceProducts(@RequestBody ProductRepriceRequest repriceRequest){
+        ProductRepriceResponse repriceResponse = productRepricingService.repriceProducts(repriceRequest);
+        return new ResponseEntity<>(repriceResponse,HttpStatus.OK);
+    }
+
     @DeleteMapping("/admin/products/{productId}")
     public ResponseEntity<ProductDTO> deleteProduct(@PathVariable Long productId){
         ProductDTO deleteProduct = productService.deleProduct(productId);
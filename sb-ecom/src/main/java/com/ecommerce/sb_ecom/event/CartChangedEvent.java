@@ -0,0 +1,14 @@
+package com.ecommerce.sb_ecom.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published inside the transaction of every change to a cart's lines or total, so that
+ * copies of the cart held in memory can be dropped once the change is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class CartChangedEvent {
+    private final Long cartId;
+}
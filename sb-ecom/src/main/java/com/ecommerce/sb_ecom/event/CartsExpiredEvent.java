@@ -0,0 +1,16 @@
+package com.ecommerce.sb_ecom.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by AbandonedCartSweeper inside the transaction that deleted the carts, so
+ * copies of them held in memory are dropped once the delete is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class CartsExpiredEvent {
+    private final List<Long> cartIds;
+}
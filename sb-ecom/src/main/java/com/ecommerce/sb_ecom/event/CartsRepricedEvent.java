@@ -0,0 +1,16 @@
+package com.ecommerce.sb_ecom.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by CartRepriceWorker once every stored cart line of the products carries
+ * their current price. The lines were changed with set-based updates, by product.
+ */
+@Getter
+@AllArgsConstructor
+public class CartsRepricedEvent {
+    private final List<Long> productIds;
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.sb_ecom.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a category is created or renamed.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+    private final String categoryName;
+}
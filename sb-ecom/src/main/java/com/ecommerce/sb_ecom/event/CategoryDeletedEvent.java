@@ -0,0 +1,16 @@
+package com.ecommerce.sb_ecom.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published once a category and all of its products have been removed.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryDeletedEvent {
+    private final Long categoryId;
+    private final List<Long> productIds;
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.sb_ecom.event;
+
+import com.ecommerce.sb_ecom.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by ProductServiceImplementation after every product write so that
+ * in-memory catalog structures can update themselves without a DB round trip.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        IMAGE_UPDATED
+    }
+
+    private final ChangeType changeType;
+    private final Product product;
+
+    // Name and description before an UPDATED change, needed to find keyword entries the old product matched
+    private final String previousProductName;
+    private final String previousDescription;
+
+    public Long getProductId() {
+        return product.getProductId();
+    }
+
+    public Long getCategoryId() {
+        return product.getCategory() == null ? null : product.getCategory().getCategoryId();
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.sb_ecom.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when an update changes a product's special price or discount. The cart lines
+ * holding the product still carry the old values until CartRepriceWorker catches up.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductPriceChangedEvent {
+    private final Long productId;
+}
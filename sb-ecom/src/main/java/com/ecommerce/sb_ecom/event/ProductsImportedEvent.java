@@ -0,0 +1,22 @@
+package com.ecommerce.sb_ecom.event;
+
+import com.ecommerce.sb_ecom.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published once per committed chunk of a bulk import, so listeners apply the whole
+ * chunk in one pass instead of handling a ProductChangedEvent per row.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductsImportedEvent {
+    private final Long categoryId;
+    private final List<Product> products;
+
+    public List<Long> getProductIds() {
+        return products.stream().map(Product::getProductId).toList();
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.sb_ecom.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Published when an order is placed, with the units ordered per product id.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductsOrderedEvent {
+    private final Map<Long, Integer> quantities;
+}
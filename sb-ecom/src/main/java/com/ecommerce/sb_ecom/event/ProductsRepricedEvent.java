@@ -0,0 +1,16 @@
+package com.ecommerce.sb_ecom.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published once per committed chunk of a bulk repricing. Prices were changed with
+ * set-based updates, so there are no loaded entities to hand to listeners.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductsRepricedEvent {
+    private final List<Long> productIds;
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.sb_ecom.exceptions;
 
 import com.ecommerce.sb_ecom.payload.APIResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -39,4 +40,11 @@ public class MyGlobalExceptionHandler {
         APIResponse apiResponse = new APIResponse(message,false);
         return new ResponseEntity<>(apiResponse,HttpStatus.BAD_REQUEST);
     }
+
+    // A versioned row (a cart) kept changing under the request; the client can simply try again
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<APIResponse> myOptimisticLockingFailureException(OptimisticLockingFailureException e){
+        APIResponse apiResponse = new APIResponse("Changed by another request at the same time, please try again",false);
+        return new ResponseEntity<>(apiResponse,HttpStatus.CONFLICT);
+    }
 }
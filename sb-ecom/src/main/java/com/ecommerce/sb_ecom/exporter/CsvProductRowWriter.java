@@ -0,0 +1,69 @@
+package com.ecommerce.sb_ecom.exporter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * RFC 4180 style CSV with a header row, quoting fields that contain commas, quotes
+ * or line breaks. The columns are the ones CsvProductRowReader reads back.
+ */
+class CsvProductRowWriter implements ProductRowWriter {
+
+    static final String HEADER = "productId,productName,description,image,quantity,price,discount,specialPrice,categoryId,updatedAt";
+
+    private final Writer writer;
+
+    CsvProductRowWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(ProductExportRow row) throws IOException {
+        field(row.getProductId());
+        writer.write(',');
+        field(row.getProductName());
+        writer.write(',');
+        field(row.getDescription());
+        writer.write(',');
+        field(row.getImage());
+        writer.write(',');
+        field(row.getQuantity());
+        writer.write(',');
+        field(row.getPrice());
+        writer.write(',');
+        field(row.getDiscount());
+        writer.write(',');
+        field(row.getSpecialPrice());
+        writer.write(',');
+        field(row.getCategoryId());
+        writer.write(',');
+        field(row.getUpdatedAt());
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void field(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
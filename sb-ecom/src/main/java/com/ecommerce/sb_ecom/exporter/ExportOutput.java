@@ -0,0 +1,14 @@
+package com.ecommerce.sb_ecom.exporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Where an export goes. Opened only after the request has been validated, so errors
+ * found up front can still be reported as a normal response.
+ */
+@FunctionalInterface
+public interface ExportOutput {
+
+    OutputStream open() throws IOException;
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.sb_ecom.exporter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Newline delimited JSON: one product object per line, readable by NdjsonProductRowReader.
+ */
+class NdjsonProductRowWriter implements ProductRowWriter {
+
+    private final OutputStream output;
+    private final ObjectMapper objectMapper;
+
+    NdjsonProductRowWriter(OutputStream output, ObjectMapper objectMapper) {
+        this.output = new BufferedOutputStream(output, 64 * 1024);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void write(ProductExportRow row) throws IOException {
+        output.write(objectMapper.writeValueAsBytes(row));
+        output.write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        output.flush();
+    }
+}
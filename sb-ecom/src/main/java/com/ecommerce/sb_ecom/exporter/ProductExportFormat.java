@@ -0,0 +1,28 @@
+package com.ecommerce.sb_ecom.exporter;
+
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import com.ecommerce.sb_ecom.importer.ProductImportFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Locale;
+
+@Getter
+@AllArgsConstructor
+public enum ProductExportFormat {
+    CSV(ProductImportFormat.CSV_MEDIA_TYPE + ";charset=UTF-8", "csv"),
+    NDJSON(ProductImportFormat.NDJSON_MEDIA_TYPE, "ndjson");
+
+    private final String mediaType;
+    private final String fileExtension;
+
+    public static ProductExportFormat fromName(String name) {
+        for (ProductExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new APIException("Unsupported export format " + name + ", expected "
+                + CSV.name().toLowerCase(Locale.ROOT) + " or " + NDJSON.name().toLowerCase(Locale.ROOT));
+    }
+}
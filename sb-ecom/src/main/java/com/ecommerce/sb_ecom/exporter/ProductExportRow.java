@@ -0,0 +1,28 @@
+package com.ecommerce.sb_ecom.exporter;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One exported product, read as a JPQL projection so streamed rows never enter the
+ * persistence context. Field names match the import columns, so an export can be
+ * imported again.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductExportRow {
+    private Long productId;
+    private String productName;
+    private String description;
+    private String image;
+    private Integer quantity;
+    private double price;
+    private double discount;
+    private double specialPrice;
+    private Long categoryId;
+    private Instant updatedAt;
+}
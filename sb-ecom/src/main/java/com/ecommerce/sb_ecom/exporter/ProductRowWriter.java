@@ -0,0 +1,17 @@
+package com.ecommerce.sb_ecom.exporter;
+
+import java.io.IOException;
+
+/**
+ * Pushes product records onto a download one at a time, so an export never holds
+ * more than the current row in memory.
+ */
+public interface ProductRowWriter {
+
+    void write(ProductExportRow row) throws IOException;
+
+    /**
+     * Flushes whatever is buffered, the underlying stream stays open.
+     */
+    void finish() throws IOException;
+}
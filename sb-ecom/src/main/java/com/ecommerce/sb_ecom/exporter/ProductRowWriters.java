@@ -0,0 +1,22 @@
+package com.ecommerce.sb_ecom.exporter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+public final class ProductRowWriters {
+
+    private ProductRowWriters() {
+    }
+
+    public static ProductRowWriter open(ProductExportFormat format, OutputStream output, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvProductRowWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024));
+            case NDJSON -> new NdjsonProductRowWriter(output, objectMapper);
+        };
+    }
+}
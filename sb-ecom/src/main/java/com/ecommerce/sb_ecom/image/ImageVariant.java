@@ -0,0 +1,28 @@
+package com.ecommerce.sb_ecom.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resized copies generated for every uploaded product image, largest first so each
+ * variant can be scaled down from the previous one.
+ */
+@Getter
+@AllArgsConstructor
+public enum ImageVariant {
+    DETAIL("detail", 1200),
+    LISTING("listing", 480),
+    THUMBNAIL("thumbnail", 160);
+
+    private final String suffix;
+
+    // Longest edge in pixels, smaller originals are never scaled up
+    private final int maxEdge;
+
+    // <sha-256>.png -> <sha-256>-listing.jpg
+    public String fileNameFor(String originalFileName) {
+        int dot = originalFileName.lastIndexOf('.');
+        String base = dot < 0 ? originalFileName : originalFileName.substring(0, dot);
+        return base + "-" + suffix + "." + ImageVariantGenerator.FORMAT;
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.sb_ecom.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Decodes an uploaded image once and writes every {@link ImageVariant} as a
+ * progressive JPEG. Large originals are subsampled while decoding, so a
+ * multi-megapixel upload never has to sit in memory at full resolution.
+ */
+@Component
+public class ImageVariantGenerator {
+
+    static final String FORMAT = "jpg";
+
+    @Value("${catalog.images.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    /**
+     * Writes the variants next to the original and returns their file names.
+     */
+    public Map<ImageVariant, String> generate(Path original) throws IOException {
+        BufferedImage image = read(original, ImageVariant.DETAIL.getMaxEdge());
+        String originalFileName = original.getFileName().toString();
+        Map<ImageVariant, String> fileNames = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            image = scaleDown(image, variant.getMaxEdge());
+            String fileName = variant.fileNameFor(originalFileName);
+            write(image, original.resolveSibling(fileName));
+            fileNames.put(variant, fileName);
+        }
+        return fileNames;
+    }
+
+    /**
+     * Returns the variant file names when all of them are already next to the original,
+     * as they are for an image stored earlier for another product, and null otherwise.
+     */
+    public Map<ImageVariant, String> existing(Path original) {
+        String originalFileName = original.getFileName().toString();
+        Map<ImageVariant, String> fileNames = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            String fileName = variant.fileNameFor(originalFileName);
+            if (Files.notExists(original.resolveSibling(fileName))) {
+                return null;
+            }
+            fileNames.put(variant, fileName);
+        }
+        return fileNames;
+    }
+
+    private BufferedImage read(Path original, int maxEdge) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Not a readable image: " + original.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Keeps at least twice the largest variant, the rest of the scaling is done with filtering
+                int step = Math.max(1, longestEdge / (maxEdge * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the image until the last step, bilinear halving keeps detail that a single big step would alias away
+    private static BufferedImage scaleDown(BufferedImage image, int maxEdge) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Also flattens transparency onto white, JPEG has no alpha channel
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    // Written to a temp file and moved into place, so a half written variant is never served
+    private void write(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), ".variant", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(FORMAT).next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.sb_ecom.image;
+
+import com.ecommerce.sb_ecom.model.StoredImage;
+import com.ecommerce.sb_ecom.repositories.StoredImageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes stored images, with their variants, that no product has referenced for the
+ * grace period. The grace period covers pages and caches still pointing at a file that
+ * was just replaced. Runs on the scheduler pool, in batches, each removing the files while
+ * the rows are locked so an upload of the same bytes waits and then stores them anew.
+ */
+@Component
+public class OrphanedImageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanedImageCollector.class);
+
+    @Autowired
+    private StoredImageRepository storedImageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${project.image}")
+    private String path;
+
+    @Value("${catalog.images.gc-grace-seconds:600}")
+    private long graceSeconds;
+
+    @Value("${catalog.images.gc-batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${catalog.images.gc-interval-seconds:60}",
+            initialDelayString = "${catalog.images.gc-interval-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void collect() {
+        int collected = 0;
+        int removed;
+        do {
+            removed = transactionTemplate.execute(status -> collectBatch());
+            collected += removed;
+        } while (removed == batchSize);
+        if (collected > 0) {
+            logger.info("Removed {} orphaned images", collected);
+        }
+    }
+
+    private int collectBatch() {
+        List<StoredImage> removed = storedImageRepository.lockOrphans(graceSeconds, batchSize).stream()
+                .filter(orphan -> deleteFiles(orphan.getFileName()))
+                .toList();
+        storedImageRepository.deleteAllInBatch(removed);
+        return removed.size();
+    }
+
+    // A row is only dropped once its files are gone, otherwise the next run tries again
+    private boolean deleteFiles(String fileName) {
+        Path original = Paths.get(path).resolve(fileName);
+        try {
+            for (ImageVariant variant : ImageVariant.values()) {
+                Files.deleteIfExists(original.resolveSibling(variant.fileNameFor(fileName)));
+            }
+            Files.deleteIfExists(original);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not delete orphaned image {}: {}", fileName, e.getMessage());
+            return false;
+        }
+    }
+}
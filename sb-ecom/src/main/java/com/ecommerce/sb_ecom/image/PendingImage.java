@@ -0,0 +1,16 @@
+package com.ecommerce.sb_ecom.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A product whose uploaded image has no variants yet, picked up again after a restart.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingImage {
+    private Long productId;
+    private String image;
+}
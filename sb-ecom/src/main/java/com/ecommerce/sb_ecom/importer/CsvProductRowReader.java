@@ -0,0 +1,118 @@
+package com.ecommerce.sb_ecom.importer;
+
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import com.ecommerce.sb_ecom.payload.ProductDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 style CSV: a header row naming the columns (productName, description,
+ * quantity, price, discount in any order, others ignored), comma separated fields,
+ * double quotes around fields that contain commas, quotes or line breaks.
+ */
+class CsvProductRowReader implements ProductRowReader {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long line = 1;
+    private boolean exhausted;
+
+    CsvProductRowReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new APIException("Import file is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("productname")) {
+            throw new APIException("CSV header must contain a productName column");
+        }
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        List<String> record;
+        long recordLine;
+        do {
+            recordLine = line;
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isEmpty());
+
+        try {
+            ProductDTO product = new ProductDTO();
+            product.setProductName(field(record, "productname"));
+            product.setDescription(field(record, "description"));
+            product.setQuantity(ProductRowReaders.parseInteger("quantity", field(record, "quantity")));
+            product.setPrice(ProductRowReaders.parseDouble("price", field(record, "price")));
+            product.setDiscount(ProductRowReaders.parseDouble("discount", field(record, "discount")));
+            return ProductImportRow.parsed(recordLine, product);
+        } catch (IllegalArgumentException e) {
+            return ProductImportRow.failed(recordLine, e.getMessage());
+        }
+    }
+
+    private String field(List<String> record, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    private List<String> readRecord() throws IOException {
+        if (exhausted) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean started = false;
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                exhausted = true;
+                if (!started && fields.isEmpty()) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            started = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+    }
+}
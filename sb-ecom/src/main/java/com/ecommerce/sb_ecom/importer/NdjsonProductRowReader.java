@@ -0,0 +1,59 @@
+package com.ecommerce.sb_ecom.importer;
+
+import com.ecommerce.sb_ecom.payload.ProductDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Newline delimited JSON: one product object per line, using the ProductDTO field names.
+ */
+class NdjsonProductRowReader implements ProductRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long line;
+
+    NdjsonProductRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+
+        try {
+            JsonNode node = objectMapper.readTree(text);
+            if (!node.isObject()) {
+                return ProductImportRow.failed(line, "Expected a JSON object");
+            }
+            ProductDTO product = new ProductDTO();
+            product.setProductName(text(node, "productName"));
+            product.setDescription(text(node, "description"));
+            product.setQuantity(ProductRowReaders.parseInteger("quantity", text(node, "quantity")));
+            product.setPrice(ProductRowReaders.parseDouble("price", text(node, "price")));
+            product.setDiscount(ProductRowReaders.parseDouble("discount", text(node, "discount")));
+            return ProductImportRow.parsed(line, product);
+        } catch (JsonProcessingException e) {
+            return ProductImportRow.failed(line, "Malformed JSON: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return ProductImportRow.failed(line, e.getMessage());
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.sb_ecom.importer;
+
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import org.springframework.http.MediaType;
+
+public enum ProductImportFormat {
+    CSV,
+    NDJSON;
+
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    public static ProductImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(CSV_MEDIA_TYPE))) {
+                return CSV;
+            }
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))) {
+                return NDJSON;
+            }
+        }
+        throw new APIException("Unsupported import format " + contentType + ", expected "
+                + CSV_MEDIA_TYPE + " or " + NDJSON_MEDIA_TYPE);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.sb_ecom.importer;
+
+import com.ecommerce.sb_ecom.payload.ProductDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One record of an import upload. Either {@code product} is set or, when the record
+ * could not be parsed, {@code error} explains why.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductImportRow {
+
+    private final long line;
+    private final ProductDTO product;
+    private final String error;
+
+    public static ProductImportRow parsed(long line, ProductDTO product) {
+        return new ProductImportRow(line, product, null);
+    }
+
+    public static ProductImportRow failed(long line, String error) {
+        return new ProductImportRow(line, null, error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.sb_ecom.importer;
+
+import java.io.IOException;
+
+/**
+ * Pulls product records off an upload one at a time, so an import never holds more
+ * than the current chunk in memory.
+ */
+public interface ProductRowReader {
+
+    /**
+     * Returns the next record, or null once the input is exhausted.
+     */
+    ProductImportRow next() throws IOException;
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.sb_ecom.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+public final class ProductRowReaders {
+
+    private ProductRowReaders() {
+    }
+
+    public static ProductRowReader open(ProductImportFormat format, BufferedReader reader, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvProductRowReader(reader);
+            case NDJSON -> new NdjsonProductRowReader(reader, objectMapper);
+        };
+    }
+
+    static Integer parseInteger(String field, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a whole number, got '" + value + "'");
+        }
+    }
+
+    static double parseDouble(String field, String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a number, got '" + value + "'");
+        }
+    }
+}
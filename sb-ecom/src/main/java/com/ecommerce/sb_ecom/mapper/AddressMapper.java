@@ -0,0 +1,14 @@
+package com.ecommerce.sb_ecom.mapper;
+
+import com.ecommerce.sb_ecom.model.Address;
+import com.ecommerce.sb_ecom.payload.AddressDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface AddressMapper {
+
+    AddressDTO toDTO(Address address);
+
+    Address toEntity(AddressDTO addressDTO);
+}
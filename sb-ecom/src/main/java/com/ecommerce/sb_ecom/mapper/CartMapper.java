@@ -0,0 +1,26 @@
+package com.ecommerce.sb_ecom.mapper;
+
+import com.ecommerce.sb_ecom.model.Cart;
+import com.ecommerce.sb_ecom.model.CartItem;
+import com.ecommerce.sb_ecom.payload.CartDTO;
+import com.ecommerce.sb_ecom.payload.CartItemDTO;
+import com.ecommerce.sb_ecom.payload.ProductDTO;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE, uses = ProductMapper.class,
+        injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+public interface CartMapper {
+
+    @Mapping(target = "products", source = "cartItems")
+    CartDTO toDTO(Cart cart);
+
+    List<ProductDTO> toProductDTOs(List<CartItem> cartItems);
+
+    @Mapping(target = "productId", source = "product.productId")
+    CartItemDTO toCartItemDTO(CartItem cartItem);
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.sb_ecom.mapper;
+
+import com.ecommerce.sb_ecom.model.Category;
+import com.ecommerce.sb_ecom.payload.CategoryDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface CategoryMapper {
+
+    CategoryDTO toDTO(Category category);
+
+    // The count is maintained by the server, never taken from a request
+    @Mapping(target = "productCount", ignore = true)
+    Category toEntity(CategoryDTO categoryDTO);
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.sb_ecom.mapper;
+
+import com.ecommerce.sb_ecom.model.Order;
+import com.ecommerce.sb_ecom.model.OrderItem;
+import com.ecommerce.sb_ecom.model.Payment;
+import com.ecommerce.sb_ecom.payload.OrderDTO;
+import com.ecommerce.sb_ecom.payload.OrderItemDTO;
+import com.ecommerce.sb_ecom.payload.PaymentDTO;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE, uses = ProductMapper.class,
+        injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+public interface OrderMapper {
+
+    @Mapping(target = "addressId", source = "address.addressId")
+    OrderDTO toDTO(Order order);
+
+    OrderItemDTO toDTO(OrderItem orderItem);
+
+    PaymentDTO toDTO(Payment payment);
+}
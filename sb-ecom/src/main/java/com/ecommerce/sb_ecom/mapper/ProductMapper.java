@@ -0,0 +1,34 @@
+package com.ecommerce.sb_ecom.mapper;
+
+import com.ecommerce.sb_ecom.config.AppConstants;
+import com.ecommerce.sb_ecom.model.CartItem;
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.ProductDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface ProductMapper {
+
+    @Mapping(target = "thumbnailUrl", source = "thumbnailImage", qualifiedByName = "imageUrl")
+    @Mapping(target = "listingUrl", source = "listingImage", qualifiedByName = "imageUrl")
+    @Mapping(target = "detailUrl", source = "detailImage", qualifiedByName = "imageUrl")
+    ProductDTO toDTO(Product product);
+
+    Product toEntity(ProductDTO productDTO);
+
+    // A cart line is shown as its product with the quantity held in the cart
+    @Mapping(target = ".", source = "product")
+    @Mapping(target = "quantity", source = "quantity")
+    @Mapping(target = "thumbnailUrl", source = "product.thumbnailImage", qualifiedByName = "imageUrl")
+    @Mapping(target = "listingUrl", source = "product.listingImage", qualifiedByName = "imageUrl")
+    @Mapping(target = "detailUrl", source = "product.detailImage", qualifiedByName = "imageUrl")
+    ProductDTO toDTO(CartItem cartItem);
+
+    @Named("imageUrl")
+    default String imageUrl(String fileName) {
+        return fileName == null ? null : AppConstants.IMAGE_URL_PREFIX + fileName;
+    }
+}
@@ -46,7 +46,7 @@ public class Address {
     @Size(min = 5,message = "Pincode must be atleast 6 characters")
     private String pincode;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="user_id")
     private User user;
 
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,12 +14,15 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "carts")
+@NamedEntityGraph(name = "Cart.itemsWithProducts",
+        attributeNodes = @NamedAttributeNode(value = "cartItems", subgraph = "items"),
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
 public class Cart {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private  Long cartId;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private  User user;
 
@@ -27,5 +31,12 @@ public class Cart {
 
     private  Double totalPrice=0.0;
 
+    @Version
+    private Long version;
+
+    // Set by the database on every insert and update, see V7__cart_last_modified.sql
+    @Column(insertable = false, updatable = false)
+    private Instant lastModified;
+
 
 }
@@ -23,6 +23,11 @@ public class Category {
     @Size(min=5,message="Category name must contain atleast 5 characters")
     private String categoryName;
 
-    @OneToMany(mappedBy = "category", cascade = CascadeType.ALL)
+    // Kept in step with product inserts and deletes by set-based updates, so listings never count rows.
+    // Null only for rows that predate the column until the startup backfill has run.
+    private Long productCount;
+
+    // No cascade: deleting a category removes its products with bulk statements
+    @OneToMany(mappedBy = "category")
     private List<Product> products;
 }
@@ -29,7 +29,7 @@ public class Order {
 
     private LocalDate orderDate;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payment_id")
     private Payment payment;
 
@@ -37,7 +37,7 @@ public class Order {
     private String orderStatus;
 
     // Reference to Address
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "address_id")
     private Address address;
 }
\ No newline at end of file
@@ -7,7 +7,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,12 +17,19 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "products")
+@Table(name = "products",
+        indexes = {
+                @Index(name = "idx_products_name_category", columnList = "product_name, category_id"),
+                @Index(name = "idx_products_updated_at", columnList = "updated_at"),
+                @Index(name = "idx_products_category", columnList = "category_id, product_id"),
+                @Index(name = "idx_products_category_price", columnList = "category_id, price")
+        })
 @ToString
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long productId;
 
     @NotBlank
@@ -29,6 +38,11 @@ public class Product {
 
     private String image;
 
+    // Resized copies of image, written by the background variant workers; null until they are done
+    private String thumbnailImage;
+    private String listingImage;
+    private String detailImage;
+
     @NotBlank
     @Size(min=6,message = "Product name must contain atleast 6 characters.")
     private String description;
@@ -37,14 +51,18 @@ public class Product {
     private double specialPrice;
     private  double discount;
 
-    @ManyToOne
+    // Set on insert and on every update through the entity; set-based updates set it themselves
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="category_id")
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id")
     private  User user;
 
-    @OneToMany(mappedBy = "product",cascade = {CascadeType.PERSIST,CascadeType.MERGE},fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "product",cascade = {CascadeType.PERSIST,CascadeType.MERGE})
     private List<CartItem> products= new ArrayList<>();
 }
@@ -0,0 +1,40 @@
+package com.ecommerce.sb_ecom.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One stored product image file, shared by every product that uploaded the same bytes.
+ * refCount is the number of products showing it; once it drops to zero the file and its
+ * variants are removed by the orphan collector after a grace period.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stored_images",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stored_images_file_name", columnNames = "file_name"),
+        indexes = @Index(name = "idx_stored_images_orphans", columnList = "released_at"))
+public class StoredImage {
+
+    // Hex SHA-256 of the file
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private Long sizeBytes;
+
+    @Column(nullable = false)
+    private Integer refCount;
+
+    // When refCount last dropped to zero, null while the image is in use
+    private Instant releasedAt;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.sb_ecom.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+    private String cacheName;
+    private Integer size;
+    private Integer maxEntries;
+    private Long bytes;
+    private Long maxBytes;
+    private Long hits;
+    private Long misses;
+    private Long evictions;
+    private Long expirations;
+    private Long invalidations;
+    private double hitRatio;
+}
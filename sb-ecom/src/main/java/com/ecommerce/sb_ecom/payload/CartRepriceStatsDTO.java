@@ -0,0 +1,20 @@
+package com.ecommerce.sb_ecom.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartRepriceStatsDTO {
+    private Integer pendingProducts;
+    private Long priceChanges;
+    private Long coalescedChanges;
+    private Long productsRepriced;
+    private Long chunks;
+    private Long cartsRepriced;
+    private Long cartItemsRepriced;
+    private Long failures;
+    private Long lastRunMillis;
+}
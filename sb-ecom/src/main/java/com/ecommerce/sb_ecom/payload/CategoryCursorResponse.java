@@ -0,0 +1,18 @@
+package com.ecommerce.sb_ecom.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryCursorResponse {
+
+    private List<CategoryDTO> content;
+    private Integer pageSize;
+    private String next;
+    private boolean lastPage;
+}
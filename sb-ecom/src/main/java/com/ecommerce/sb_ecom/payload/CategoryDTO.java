@@ -11,4 +11,10 @@ public class CategoryDTO {
 
     private Long categoryId;
     private String categoryName;
+    private Long productCount;
+
+    public CategoryDTO(Long categoryId, String categoryName) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+    }
 }
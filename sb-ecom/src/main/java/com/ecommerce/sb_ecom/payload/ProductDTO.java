@@ -17,4 +17,9 @@ public class ProductDTO {
  private double discount;
 private String description;
 
+ // Set once the variants of image have been generated, until then only image is available
+ private String thumbnailUrl;
+ private String listingUrl;
+ private String detailUrl;
+
 }
@@ -0,0 +1,18 @@
+package com.ecommerce.sb_ecom.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    private long imported;
+    private long failed;
+    // Capped at catalog.import.max-reported-errors, failed always has the full count
+    private List<ProductImportError> errors = new ArrayList<>();
+}
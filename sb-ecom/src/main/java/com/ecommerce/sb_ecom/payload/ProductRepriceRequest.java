@@ -0,0 +1,21 @@
+package com.ecommerce.sb_ecom.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRepriceRequest {
+    // Products to reprice, either listed by id or every product of a category
+    private List<Long> productIds;
+    private Long categoryId;
+
+    // Percentage added to the price, -20 marks everything down by a fifth
+    private Double priceChangePercent;
+    // New discount percentage, the current one is kept when null
+    private Double discount;
+}
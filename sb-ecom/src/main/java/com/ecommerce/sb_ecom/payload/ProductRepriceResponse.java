@@ -0,0 +1,14 @@
+package com.ecommerce.sb_ecom.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRepriceResponse {
+    private long productsUpdated;
+    private long cartItemsUpdated;
+    private long cartsUpdated;
+}
@@ -1,10 +1,14 @@
 package com.ecommerce.sb_ecom.repositories;
 
 import com.ecommerce.sb_ecom.model.CartItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface CartItemRepository extends JpaRepository<CartItem,Long> {
     @Query("Select ci from CartItem ci where ci.cart.id=?1 AND ci.product.id=?2")
     CartItem findCartItemByProductIdAndCartId(Long cartId, Long productId);
@@ -16,4 +20,38 @@ public interface CartItemRepository extends JpaRepository<CartItem,Long> {
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.cart.id = ?1")
     void deleteAllByCartId(Long cartId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.product.productId IN " +
+            "(SELECT p.productId FROM Product p WHERE p.category.categoryId = ?1)")
+    int deleteByProductCategory(Long categoryId);
+
+    // Carts after lastCartId holding a line of the products at a price or discount the product no longer has
+    @Query("SELECT DISTINCT ci.cart.cartId FROM CartItem ci JOIN ci.product p " +
+            "WHERE p.productId IN ?1 AND ci.cart.cartId > ?2 " +
+            "AND (ci.productPrice <> p.specialPrice OR ci.discount <> p.discount) " +
+            "ORDER BY ci.cart.cartId")
+    List<Long> findCartIdsWithStalePrices(Collection<Long> productIds, Long lastCartId, Limit limit);
+
+    // Products some cart line still holds at a price or discount the product no longer has
+    @Query("SELECT DISTINCT p.productId FROM CartItem ci JOIN ci.product p " +
+            "WHERE ci.productPrice <> p.specialPrice OR ci.discount <> p.discount")
+    List<Long> findProductIdsWithStalePrices();
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET " +
+            "ci.productPrice = (SELECT p.specialPrice FROM Product p WHERE p.productId = ci.product.productId), " +
+            "ci.discount = (SELECT p.discount FROM Product p WHERE p.productId = ci.product.productId) " +
+            "WHERE ci.product.productId IN ?1 AND ci.cart.cartId IN ?2")
+    int repriceCartItemsInCarts(Collection<Long> productIds, Collection<Long> cartIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO cart_item_archive (cart_item_id, cart_id, product_id, quantity, discount, product_price) " +
+            "SELECT cart_item_id, cart_id, product_id, quantity, discount, product_price FROM cart_items WHERE cart_id IN (?1)",
+            nativeQuery = true)
+    int archiveByCartIds(Collection<Long> cartIds);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.cartId IN ?1")
+    int deleteByCartIds(Collection<Long> cartIds);
 }
@@ -0,0 +1,17 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.cart.CartViewLine;
+import com.ecommerce.sb_ecom.model.Cart;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface CartKeysetRepository {
+
+    // Carts in id order after lastId; each filter is skipped when null or false
+    List<Cart> findCartsAfter(boolean nonEmpty, Instant updatedSince, Double minTotal, Long lastId, int limit);
+
+    // Lines and their products of the given carts as plain rows, by cart and then in the order they were added
+    List<CartViewLine> findCartViews(Collection<Long> cartIds);
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.cart.CartViewLine;
+import com.ecommerce.sb_ecom.model.Cart;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public class CartKeysetRepositoryImpl implements CartKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Cart> findCartsAfter(boolean nonEmpty, Instant updatedSince, Double minTotal, Long lastId, int limit) {
+        KeysetQuery<Cart> query = new KeysetQuery<>(Cart.class, "Cart e", "e.cartId", "e.cartId", Long::valueOf);
+        if (nonEmpty) {
+            query.where("EXISTS (SELECT 1 FROM CartItem ci WHERE ci.cart = e)");
+        }
+        if (updatedSince != null) {
+            query.where("e.lastModified >= :updatedSince", "updatedSince", updatedSince);
+        }
+        if (minTotal != null) {
+            query.where("e.totalPrice >= :minTotal", "minTotal", minTotal);
+        }
+        return query.after(null, lastId, true)
+                .build(entityManager, true, limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<CartViewLine> findCartViews(Collection<Long> cartIds) {
+        return entityManager.createQuery(
+                        "SELECT new com.ecommerce.sb_ecom.cart.CartViewLine(c.cartId, c.totalPrice, p.productId, p.productName, " +
+                        "p.image, p.thumbnailImage, p.listingImage, p.detailImage, p.description, p.price, p.specialPrice, p.discount, " +
+                        "ci.quantity, ci.discount, ci.productPrice) " +
+                        "FROM Cart c LEFT JOIN c.cartItems ci LEFT JOIN ci.product p " +
+                        "WHERE c.cartId IN :cartIds ORDER BY c.cartId, ci.cartItemId", CartViewLine.class)
+                .setParameter("cartIds", cartIds)
+                .getResultList();
+    }
+}
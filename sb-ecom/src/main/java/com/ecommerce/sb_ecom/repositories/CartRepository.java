@@ -1,20 +1,82 @@
 package com.ecommerce.sb_ecom.repositories;
 
+import com.ecommerce.sb_ecom.cart.CartViewLine;
 import com.ecommerce.sb_ecom.model.Cart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
-public interface CartRepository extends JpaRepository<Cart,Long> {
+public interface CartRepository extends JpaRepository<Cart,Long>, CartSnapshotRepository, CartKeysetRepository {
 
     @Query("Select c from Cart c where c.user.email=?1")
     Cart findCartByEmail(String Email);
 
+    // Just the id, to take the cart's lock before reading it
+    @Query("SELECT c.cartId FROM Cart c WHERE c.user.email = ?1")
+    Long findCartIdByEmail(String email);
+
+    // Cart view: cart, lines and their products in one query
+    @EntityGraph("Cart.itemsWithProducts")
     @Query("SELECT c FROM Cart c WHERE c.user.email = ?1 AND c.id = ?2")
     Cart findCartByEmailAndCartId(String emailId, Long cartId);
 
-    @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.id = ?1")
-    List<Cart> findCartsByProductId(Long productId);
+    // Add to cart and order placement walk every line and product of the cart
+    @EntityGraph("Cart.itemsWithProducts")
+    @Query("Select c from Cart c where c.user.email=?1")
+    Cart findCartWithItemsByEmail(String email);
+
+    // Cart view of a user as plain rows, one per line in the order they were added; no entity is loaded
+    @Query("SELECT new com.ecommerce.sb_ecom.cart.CartViewLine(c.cartId, c.totalPrice, p.productId, p.productName, " +
+            "p.image, p.thumbnailImage, p.listingImage, p.detailImage, p.description, p.price, p.specialPrice, p.discount, " +
+            "ci.quantity, ci.discount, ci.productPrice) " +
+            "FROM Cart c LEFT JOIN c.cartItems ci LEFT JOIN ci.product p WHERE c.user.email = ?1 ORDER BY ci.cartItemId")
+    List<CartViewLine> findCartViewByEmail(String email);
+
+    // Cart addressed by id, with its owner to key it by
+    @EntityGraph(attributePaths = {"user", "cartItems", "cartItems.product"})
+    @Query("SELECT c FROM Cart c WHERE c.cartId = ?1")
+    Cart findCartWithItemsById(Long cartId);
+
+    // Moves the totals of a chunk of carts holding one of the products by the difference between the product's
+    // current special price and the price recorded on its cart lines; must run before the lines are repriced.
+    // The deltas are aggregated once per statement instead of once per cart.
+    @Modifying
+    @Query(value = "UPDATE carts c SET total_price = c.total_price + d.delta, version = c.version + 1 FROM " +
+            "(SELECT ci.cart_id, SUM((p.special_price - ci.product_price) * ci.quantity) AS delta " +
+            "FROM cart_items ci JOIN products p ON p.product_id = ci.product_id " +
+            "WHERE ci.product_id IN (?1) AND ci.cart_id IN (?2) GROUP BY ci.cart_id) d " +
+            "WHERE c.cart_id = d.cart_id",
+            nativeQuery = true)
+    int adjustTotalsForRepricedProductsInCarts(Collection<Long> productIds, Collection<Long> cartIds);
+
+    // Takes the lines of a category's products out of every cart total; must run before the lines are deleted
+    @Modifying
+    @Query(value = "UPDATE carts c SET total_price = c.total_price - d.amount, version = c.version + 1 FROM " +
+            "(SELECT ci.cart_id, SUM(ci.product_price * ci.quantity) AS amount " +
+            "FROM cart_items ci JOIN products p ON p.product_id = ci.product_id " +
+            "WHERE p.category_id = ?1 GROUP BY ci.cart_id) d " +
+            "WHERE c.cart_id = d.cart_id",
+            nativeQuery = true)
+    int removeCategoryFromTotals(Long categoryId);
+
+    // Oldest carts idle since before the cutoff, after the sweeper's last position; carts being changed right now are skipped
+    @Query(value = "SELECT * FROM carts WHERE last_modified < ?1 AND (last_modified, cart_id) > (?2, ?3) " +
+            "ORDER BY last_modified, cart_id LIMIT ?4 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Cart> lockIdleCarts(Instant cutoff, Instant lastModified, Long lastCartId, int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO cart_archive (cart_id, user_id, total_price, last_modified) " +
+            "SELECT cart_id, user_id, total_price, last_modified FROM carts WHERE cart_id IN (?1)",
+            nativeQuery = true)
+    int archiveCarts(Collection<Long> cartIds);
 
+    @Modifying
+    @Query(value = "DELETE FROM carts WHERE cart_id IN (?1)", nativeQuery = true)
+    int deleteCarts(Collection<Long> cartIds);
 }
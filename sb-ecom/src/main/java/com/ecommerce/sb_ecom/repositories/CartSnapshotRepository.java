@@ -0,0 +1,21 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.cart.ActiveCartLine;
+import com.ecommerce.sb_ecom.cart.CartSnapshot;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CartSnapshotRepository {
+
+    /**
+     * Replaces the lines of every cart with its snapshot and recomputes the cart totals, in
+     * three statements. Lines of products deleted in the meantime are dropped. Has to run in
+     * a transaction.
+     */
+    void saveSnapshots(Collection<CartSnapshot> snapshots);
+
+    // Lines of the carts keyed by cart id, carts without lines have no entry
+    Map<Long, List<ActiveCartLine>> findLines(Collection<Long> cartIds);
+}
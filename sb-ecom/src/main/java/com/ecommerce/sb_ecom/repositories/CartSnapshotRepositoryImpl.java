@@ -0,0 +1,74 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.cart.ActiveCartLine;
+import com.ecommerce.sb_ecom.cart.CartSnapshot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CartSnapshotRepositoryImpl implements CartSnapshotRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void saveSnapshots(Collection<CartSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            Long[] cartIds = snapshots.stream().map(CartSnapshot::getCartId).toArray(Long[]::new);
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM cart_items WHERE cart_id = ANY (?)")) {
+                delete.setArray(1, connection.createArrayOf("bigint", cartIds));
+                delete.executeUpdate();
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO cart_items (cart_id, product_id, quantity, discount, product_price) " +
+                    "SELECT ?, product_id, ?, ?, ? FROM products WHERE product_id = ? " +
+                    // A cart expired by AbandonedCartSweeper meanwhile is skipped rather than failing the batch
+                    "AND EXISTS (SELECT 1 FROM carts WHERE cart_id = ?)")) {
+                for (CartSnapshot snapshot : snapshots) {
+                    for (ActiveCartLine line : snapshot.getLines()) {
+                        insert.setLong(1, snapshot.getCartId());
+                        insert.setInt(2, line.getQuantity());
+                        insert.setDouble(3, line.getDiscount());
+                        insert.setDouble(4, line.getProductPrice());
+                        insert.setLong(5, line.getProductId());
+                        insert.setLong(6, snapshot.getCartId());
+                        insert.addBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            // Summed from the rows actually written, so a dropped line does not count
+            try (PreparedStatement update = connection.prepareStatement("UPDATE carts c SET total_price = " +
+                    "COALESCE((SELECT SUM(ci.product_price * ci.quantity) FROM cart_items ci WHERE ci.cart_id = c.cart_id), 0), " +
+                    "version = c.version + 1 WHERE c.cart_id = ANY (?)")) {
+                update.setArray(1, connection.createArrayOf("bigint", cartIds));
+                update.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public Map<Long, List<ActiveCartLine>> findLines(Collection<Long> cartIds) {
+        List<Object[]> rows = entityManager.createQuery(
+                        "SELECT ci.cart.cartId, ci.product.productId, ci.quantity, ci.discount, ci.productPrice " +
+                        "FROM CartItem ci WHERE ci.cart.cartId IN :cartIds ORDER BY ci.cartItemId", Object[].class)
+                .setParameter("cartIds", cartIds)
+                .getResultList();
+        Map<Long, List<ActiveCartLine>> lines = new HashMap<>();
+        for (Object[] row : rows) {
+            lines.computeIfAbsent((Long) row[0], cartId -> new ArrayList<>())
+                    .add(new ActiveCartLine((Long) row[1], (Integer) row[2], (Double) row[3], (Double) row[4]));
+        }
+        return lines;
+    }
+}
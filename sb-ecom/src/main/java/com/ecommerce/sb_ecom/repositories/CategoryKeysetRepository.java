@@ -0,0 +1,12 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.model.Category;
+
+import java.util.List;
+
+public interface CategoryKeysetRepository {
+
+    List<Category> findCategoriesAfter(String sortBy, boolean ascending, String lastKey, Long lastId, int limit);
+
+    String sortKeyOf(Category category, String sortBy);
+}
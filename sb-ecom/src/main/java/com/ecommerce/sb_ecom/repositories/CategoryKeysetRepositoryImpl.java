@@ -0,0 +1,45 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import com.ecommerce.sb_ecom.model.Category;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class CategoryKeysetRepositoryImpl implements CategoryKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Category> findCategoriesAfter(String sortBy, boolean ascending, String lastKey, Long lastId, int limit) {
+        KeysetQuery<Category> query = new KeysetQuery<>(Category.class, "categories e", "e.categoryId",
+                keyExpression(sortBy), keyParser(sortBy));
+        return query.after(lastKey, lastId, ascending)
+                .build(entityManager, ascending, limit)
+                .getResultList();
+    }
+
+    @Override
+    public String sortKeyOf(Category category, String sortBy) {
+        return switch (sortBy) {
+            case "categoryId" -> String.valueOf(category.getCategoryId());
+            case "categoryName" -> category.getCategoryName();
+            default -> throw new APIException("Categories cannot be sorted by " + sortBy);
+        };
+    }
+
+    private String keyExpression(String sortBy) {
+        return switch (sortBy) {
+            case "categoryId" -> "e.categoryId";
+            case "categoryName" -> "e.categoryName";
+            default -> throw new APIException("Categories cannot be sorted by " + sortBy);
+        };
+    }
+
+    private Function<String, Object> keyParser(String sortBy) {
+        return sortBy.equals("categoryId") ? Long::valueOf : key -> key;
+    }
+}
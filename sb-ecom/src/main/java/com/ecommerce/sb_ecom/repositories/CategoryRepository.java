@@ -1,11 +1,33 @@
 package com.ecommerce.sb_ecom.repositories;
 
 import com.ecommerce.sb_ecom.model.Category;
+import com.ecommerce.sb_ecom.search.SuggestSource;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-public interface CategoryRepository extends JpaRepository<Category,Long> {
+import java.util.List;
+
+public interface CategoryRepository extends JpaRepository<Category,Long>, CategoryKeysetRepository {
 
     Category findByCategoryName( String categoryName);
+
+    // Popularity is the number of products in the category
+    @Query("SELECT new com.ecommerce.sb_ecom.search.SuggestSource(c.categoryId, c.categoryName, COALESCE(c.productCount, 0)) " +
+            "FROM categories c")
+    List<SuggestSource> findSuggestSources();
+
+    // Relative update, so concurrent product inserts and deletes in one category never lose a change.
+    // A count still waiting for the backfill stays null and is counted there instead.
+    @Modifying
+    @Query("UPDATE categories c SET c.productCount = c.productCount + ?2 WHERE c.categoryId = ?1")
+    int adjustProductCount(Long categoryId, long delta);
+
+    // Counts categories created before productCount existed, once
+    @Modifying
+    @Query("UPDATE categories c SET c.productCount = (SELECT COUNT(p) FROM Product p WHERE p.category = c) " +
+            "WHERE c.productCount IS NULL")
+    int backfillProductCounts();
 }
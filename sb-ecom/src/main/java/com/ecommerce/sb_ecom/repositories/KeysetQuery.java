@@ -0,0 +1,67 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds "WHERE (sortKey, id) > (?, ?) ORDER BY sortKey, id" seek queries so a page
+ * costs the same whether it is the first or the ten-thousandth.
+ */
+class KeysetQuery<T> {
+
+    private final Class<T> type;
+    private final String from;
+    private final String idExpression;
+    private final String keyExpression;
+    private final Function<String, Object> keyParser;
+    private final StringBuilder where = new StringBuilder();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    KeysetQuery(Class<T> type, String from, String idExpression, String keyExpression, Function<String, Object> keyParser) {
+        this.type = type;
+        this.from = from;
+        this.idExpression = idExpression;
+        this.keyExpression = keyExpression;
+        this.keyParser = keyParser;
+    }
+
+    KeysetQuery<T> where(String condition, String parameter, Object value) {
+        parameters.put(parameter, value);
+        return where(condition);
+    }
+
+    KeysetQuery<T> where(String condition) {
+        where.append(where.isEmpty() ? " WHERE " : " AND ").append(condition);
+        return this;
+    }
+
+    KeysetQuery<T> after(String lastKey, Long lastId, boolean ascending) {
+        if (lastId == null) {
+            return this;
+        }
+        String comparison = ascending ? " > " : " < ";
+        if (keyExpression.equals(idExpression)) {
+            return where(idExpression + comparison + ":lastId", "lastId", lastId);
+        }
+        try {
+            parameters.put("lastKey", keyParser.apply(lastKey));
+        } catch (RuntimeException e) {
+            throw new APIException("Invalid cursor key: " + lastKey);
+        }
+        return where("(" + keyExpression + ", " + idExpression + ")" + comparison + "(:lastKey, :lastId)", "lastId", lastId);
+    }
+
+    TypedQuery<T> build(EntityManager entityManager, boolean ascending, int limit) {
+        String direction = ascending ? " ASC" : " DESC";
+        String jpql = "SELECT e FROM " + from + where
+                + " ORDER BY " + keyExpression + direction + ", " + idExpression + direction;
+        TypedQuery<T> query = entityManager.createQuery(jpql, type).setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+}
@@ -2,6 +2,14 @@ package com.ecommerce.sb_ecom.repositories;
 
 import com.ecommerce.sb_ecom.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface OrderItemRepository  extends JpaRepository<OrderItem, Long> {
+
+    // Placed orders keep their lines, quantities and prices when the products go away
+    @Modifying
+    @Query("UPDATE OrderItem oi SET oi.product = NULL WHERE oi.product.productId IN " +
+            "(SELECT p.productId FROM Product p WHERE p.category.categoryId = ?1)")
+    int detachProductsOfCategory(Long categoryId);
 }
@@ -0,0 +1,15 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.exporter.ProductExportRow;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+public interface ProductExportRepository {
+
+    /**
+     * Forward-only cursor over the products matching the optional filters, in id order.
+     * Has to be consumed inside a transaction and closed.
+     */
+    Stream<ProductExportRow> streamExportRows(Long categoryId, Instant updatedSince, int fetchSize);
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.exporter.ProductExportRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ProductExportRepositoryImpl implements ProductExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Only the filters actually given end up in the query, so each one can use its index
+    @Override
+    public Stream<ProductExportRow> streamExportRows(Long categoryId, Instant updatedSince, int fetchSize) {
+        List<String> conditions = new ArrayList<>();
+        if (categoryId != null) {
+            conditions.add("p.category.categoryId = :categoryId");
+        }
+        if (updatedSince != null) {
+            conditions.add("p.updatedAt >= :updatedSince");
+        }
+        String jpql = "SELECT new com.ecommerce.sb_ecom.exporter.ProductExportRow(p.productId, p.productName, " +
+                "p.description, p.image, p.quantity, p.price, p.discount, p.specialPrice, p.category.categoryId, " +
+                "p.updatedAt) FROM Product p" +
+                (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+                " ORDER BY p.productId";
+
+        TypedQuery<ProductExportRow> query = entityManager.createQuery(jpql, ProductExportRow.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (updatedSince != null) {
+            query.setParameter("updatedSince", updatedSince);
+        }
+        return query.getResultStream();
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.model.Product;
+
+import java.util.List;
+
+public interface ProductKeysetRepository {
+
+    List<Product> findProductsAfter(Long categoryId, String sortBy, boolean ascending, String lastKey, Long lastId, int limit);
+
+    String sortKeyOf(Product product, String sortBy);
+}
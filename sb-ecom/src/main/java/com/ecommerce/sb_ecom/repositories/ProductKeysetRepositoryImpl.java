@@ -0,0 +1,62 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import com.ecommerce.sb_ecom.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class ProductKeysetRepositoryImpl implements ProductKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findProductsAfter(Long categoryId, String sortBy, boolean ascending, String lastKey, Long lastId, int limit) {
+        KeysetQuery<Product> query = new KeysetQuery<>(Product.class, "Product e", "e.productId",
+                keyExpression(sortBy), keyParser(sortBy));
+        if (categoryId != null) {
+            query.where("e.category.categoryId = :categoryId", "categoryId", categoryId);
+        }
+        return query.after(lastKey, lastId, ascending)
+                .build(entityManager, ascending, limit)
+                .getResultList();
+    }
+
+    @Override
+    public String sortKeyOf(Product product, String sortBy) {
+        return switch (sortBy) {
+            case "productId" -> String.valueOf(product.getProductId());
+            case "productName" -> product.getProductName();
+            case "price" -> String.valueOf(product.getPrice());
+            case "specialPrice" -> String.valueOf(product.getSpecialPrice());
+            case "discount" -> String.valueOf(product.getDiscount());
+            case "quantity" -> String.valueOf(product.getQuantity() == null ? 0 : product.getQuantity());
+            default -> throw new APIException("Products cannot be sorted by " + sortBy);
+        };
+    }
+
+    private String keyExpression(String sortBy) {
+        return switch (sortBy) {
+            case "productId" -> "e.productId";
+            case "productName" -> "e.productName";
+            case "price" -> "e.price";
+            case "specialPrice" -> "e.specialPrice";
+            case "discount" -> "e.discount";
+            // Null quantities would drop out of a row comparison, so they sort as zero
+            case "quantity" -> "COALESCE(e.quantity, 0)";
+            default -> throw new APIException("Products cannot be sorted by " + sortBy);
+        };
+    }
+
+    private Function<String, Object> keyParser(String sortBy) {
+        return switch (sortBy) {
+            case "productId" -> Long::valueOf;
+            case "productName" -> key -> key;
+            case "quantity" -> Integer::valueOf;
+            default -> Double::valueOf;
+        };
+    }
+}
@@ -1,14 +1,102 @@
 package com.ecommerce.sb_ecom.repositories;
 
+import com.ecommerce.sb_ecom.image.PendingImage;
 import com.ecommerce.sb_ecom.model.Category;
 import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.search.FacetedProduct;
+import com.ecommerce.sb_ecom.search.IndexedProduct;
+import com.ecommerce.sb_ecom.search.SuggestSource;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product,Long> {
+public interface ProductRepository extends JpaRepository<Product,Long>, ProductKeysetRepository, ProductExportRepository {
     Page<Product> findByCategoryOrderByPriceAsc(Category category, Pageable pageDetails);
     Page<Product> findByProductNameLikeIgnoreCase(String keyword, Pageable pageDetails);
+
+    // Slice variants fetch one extra row instead of issuing a count(*)
+    Slice<Product> findSliceBy(Pageable pageDetails);
+    Slice<Product> findSliceByCategoryOrderByPriceAsc(Category category, Pageable pageDetails);
+    Slice<Product> findSliceByProductNameLikeIgnoreCase(String keyword, Pageable pageDetails);
+
+    long countByCategory(Category category);
+    boolean existsByCategoryAndProductName(Category category, String productName);
+
+    @Query("SELECT p.productName FROM Product p WHERE p.category.categoryId = ?1 AND p.productName IN ?2")
+    List<String> findExistingProductNames(Long categoryId, Collection<String> productNames);
+
+    long countByProductNameLikeIgnoreCase(String keyword);
+
+    @Query("SELECT MIN(p.productId) FROM Product p")
+    Long findMinProductId();
+
+    @Query("SELECT MAX(p.productId) FROM Product p")
+    Long findMaxProductId();
+
+    @Query("SELECT new com.ecommerce.sb_ecom.search.IndexedProduct(p.productId, p.productName, p.description, " +
+            "p.quantity, p.price, p.specialPrice, p.discount) " +
+            "FROM Product p WHERE p.productId >= ?1 AND p.productId < ?2 ORDER BY p.productId")
+    List<IndexedProduct> findIndexedProductsInRange(Long fromId, Long toId);
+
+    @Query("SELECT new com.ecommerce.sb_ecom.search.IndexedProduct(p.productId, p.productName, p.description, " +
+            "p.quantity, p.price, p.specialPrice, p.discount) " +
+            "FROM Product p WHERE p.productId IN ?1")
+    List<IndexedProduct> findIndexedProductsByIds(Collection<Long> productIds);
+
+    @Query("SELECT new com.ecommerce.sb_ecom.search.FacetedProduct(p.productId, p.category.categoryId, " +
+            "p.quantity, p.specialPrice, p.discount) " +
+            "FROM Product p WHERE p.productId >= ?1 AND p.productId < ?2 ORDER BY p.productId")
+    List<FacetedProduct> findFacetedProductsInRange(Long fromId, Long toId);
+
+    @Query("SELECT new com.ecommerce.sb_ecom.search.FacetedProduct(p.productId, p.category.categoryId, " +
+            "p.quantity, p.specialPrice, p.discount) " +
+            "FROM Product p WHERE p.productId IN ?1")
+    List<FacetedProduct> findFacetedProductsByIds(Collection<Long> productIds);
+
+    // Popularity is the number of units ever ordered
+    @Query("SELECT new com.ecommerce.sb_ecom.search.SuggestSource(p.productId, p.productName, COALESCE(SUM(oi.quantity), 0)) " +
+            "FROM Product p LEFT JOIN OrderItem oi ON oi.product = p " +
+            "WHERE p.productId >= ?1 AND p.productId < ?2 GROUP BY p.productId, p.productName")
+    List<SuggestSource> findSuggestSourcesInRange(Long fromId, Long toId);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = ?1")
+    List<Long> findProductIdsByCategory(Long categoryId);
+
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.category.categoryId = ?1")
+    int deleteByCategoryId(Long categoryId);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = ?1 AND p.productId > ?2 ORDER BY p.productId")
+    List<Long> findProductIdsByCategoryAfter(Long categoryId, Long lastProductId, Limit limit);
+
+    @Query("SELECT new com.ecommerce.sb_ecom.image.PendingImage(p.productId, p.image) FROM Product p " +
+            "WHERE p.thumbnailImage IS NULL AND p.image IS NOT NULL AND p.image <> ?1")
+    List<PendingImage> findImagesWithoutVariants(String defaultImage);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.thumbnailImage = ?3, p.listingImage = ?4, p.detailImage = ?5, " +
+            "p.updatedAt = CURRENT_TIMESTAMP WHERE p.productId = ?1 AND p.image = ?2")
+    int updateImageVariants(Long productId, String image, String thumbnailImage, String listingImage, String detailImage);
+
+    // The right hand side sees the old row, so specialPrice is computed from the new price and discount
+    @Modifying
+    @Query("UPDATE Product p SET p.price = p.price * ?2, " +
+            "p.discount = COALESCE(?3, p.discount), " +
+            "p.specialPrice = p.price * ?2 - (COALESCE(?3, p.discount) * 0.01) * p.price * ?2, " +
+            "p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.productId IN ?1")
+    int repriceProducts(Collection<Long> productIds, double priceFactor, Double discount);
+
+    // Holds the prices still until the transaction ends, so statements reading them one after another agree
+    @Query(value = "SELECT product_id FROM products WHERE product_id IN (?1) FOR SHARE", nativeQuery = true)
+    List<Long> lockPrices(Collection<Long> productIds);
 }
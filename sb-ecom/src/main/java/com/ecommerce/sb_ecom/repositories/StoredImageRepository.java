@@ -0,0 +1,45 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.model.StoredImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface StoredImageRepository extends JpaRepository<StoredImage, String> {
+
+    // Takes a reference on the image with this hash, registering it under fileName if it is new.
+    // The row stays locked until the caller commits, so the orphan collector cannot remove the file meanwhile.
+    @Modifying
+    @Query(value = "INSERT INTO stored_images (content_hash, file_name, size_bytes, ref_count) VALUES (?1, ?2, ?3, 1) " +
+            "ON CONFLICT (content_hash) DO UPDATE SET ref_count = stored_images.ref_count + 1, released_at = NULL",
+            nativeQuery = true)
+    int claim(String contentHash, String fileName, long sizeBytes);
+
+    @Query("SELECT s.fileName FROM StoredImage s WHERE s.contentHash = ?1")
+    String findFileNameByContentHash(String contentHash);
+
+    // Files that were never stored through the content addressed store have no row and are left alone
+    @Modifying
+    @Query(value = "UPDATE stored_images SET ref_count = ref_count - 1, " +
+            "released_at = CASE WHEN ref_count = 1 THEN now() ELSE released_at END " +
+            "WHERE file_name = ?1 AND ref_count > 0",
+            nativeQuery = true)
+    int release(String fileName);
+
+    // Drops the references of every product in the category; must run before the products are deleted
+    @Modifying
+    @Query(value = "UPDATE stored_images s SET ref_count = s.ref_count - p.products, " +
+            "released_at = CASE WHEN s.ref_count = p.products THEN now() ELSE s.released_at END FROM " +
+            "(SELECT image, COUNT(*) AS products FROM products WHERE category_id = ?1 GROUP BY image) p " +
+            "WHERE s.file_name = p.image",
+            nativeQuery = true)
+    int releaseImagesOfCategory(Long categoryId);
+
+    // Locks a batch of images unreferenced for longer than the grace period, skipping any an upload is claiming
+    @Query(value = "SELECT * FROM stored_images WHERE ref_count = 0 AND released_at < now() - make_interval(secs => ?1) " +
+            "ORDER BY released_at LIMIT ?2 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<StoredImage> lockOrphans(double graceSeconds, int limit);
+}
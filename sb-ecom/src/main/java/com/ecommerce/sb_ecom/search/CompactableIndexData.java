@@ -0,0 +1,14 @@
+package com.ecommerce.sb_ecom.search;
+
+/**
+ * Index data that leaves dead documents behind on removal and can be rewritten
+ * without them. {@link RebuildableIndex} compacts it once the dead outnumber the live.
+ */
+interface CompactableIndexData<D extends CompactableIndexData<D>> {
+
+    int liveCount();
+
+    int deadCount();
+
+    D compact();
+}
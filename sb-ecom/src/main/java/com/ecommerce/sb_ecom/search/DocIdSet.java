@@ -0,0 +1,111 @@
+package com.ecommerce.sb_ecom.search;
+
+import java.util.Arrays;
+
+/**
+ * Fixed word bitset over doc ids. Unlike java.util.BitSet it can count an intersection
+ * without materialising it, which is what every facet count is.
+ */
+class DocIdSet {
+
+    private long[] words;
+
+    DocIdSet() {
+        this(new long[16]);
+    }
+
+    private DocIdSet(long[] words) {
+        this.words = words;
+    }
+
+    void set(int docId) {
+        int word = docId >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(words.length * 2, word + 1));
+        }
+        words[word] |= 1L << docId;
+    }
+
+    void clear(int docId) {
+        int word = docId >>> 6;
+        if (word < words.length) {
+            words[word] &= ~(1L << docId);
+        }
+    }
+
+    boolean get(int docId) {
+        int word = docId >>> 6;
+        return word < words.length && (words[word] & (1L << docId)) != 0;
+    }
+
+    boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int nextSetBit(int from) {
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    DocIdSet copy() {
+        return new DocIdSet(words.clone());
+    }
+
+    void or(DocIdSet other) {
+        if (other.words.length > words.length) {
+            words = Arrays.copyOf(words, other.words.length);
+        }
+        for (int i = 0; i < other.words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    void and(DocIdSet other) {
+        int common = Math.min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            words[i] &= other.words[i];
+        }
+        Arrays.fill(words, common, words.length, 0L);
+    }
+
+    void andNot(DocIdSet other) {
+        int common = Math.min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    int andCardinality(DocIdSet other) {
+        int common = Math.min(words.length, other.words.length);
+        int count = 0;
+        for (int i = 0; i < common; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.sb_ecom.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Selected facet values. Null or empty means the facet does not filter; values within
+ * one facet are ORed, facets are ANDed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetFilter {
+    private List<Long> categoryIds;
+    // Bands of the special price, the price the customer pays
+    private List<String> priceBands;
+    private List<String> discountBands;
+    private Boolean inStock;
+}
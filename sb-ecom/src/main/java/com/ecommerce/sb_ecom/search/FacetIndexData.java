@@ -0,0 +1,288 @@
+package com.ecommerce.sb_ecom.search;
+
+import com.ecommerce.sb_ecom.payload.FacetCountDTO;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * One generation of the facet index: a bitset of doc ids per facet value. A product keeps
+ * its doc id across updates, so an update only moves its bit between value bitsets.
+ * Not thread safe, ProductFacetIndex guards it.
+ */
+class FacetIndexData implements CompactableIndexData<FacetIndexData> {
+
+    static final String CATEGORY = "category";
+    static final String PRICE = "price";
+    static final String DISCOUNT = "discount";
+    static final String IN_STOCK = "inStock";
+
+    private final double[] priceBounds;
+    private final double[] discountBounds;
+    private final String[] priceLabels;
+    private final String[] discountLabels;
+
+    private long[] productIds = new long[1024];
+    private Long[] categoryIds = new Long[1024];
+    private double[] prices = new double[1024];
+    private double[] discounts = new double[1024];
+    private int[] priceBands = new int[1024];
+    private int[] discountBands = new int[1024];
+    private int docCount;
+    private int liveCount;
+    private final DocIdSet live = new DocIdSet();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    private final Map<Long, DocIdSet> byCategory = new HashMap<>();
+    private final DocIdSet[] byPriceBand;
+    private final DocIdSet[] byDiscountBand;
+    private final DocIdSet inStock = new DocIdSet();
+
+    /**
+     * Bounds are the ascending upper limits of each band; the last band is open ended.
+     */
+    FacetIndexData(double[] priceBounds, double[] discountBounds) {
+        this.priceBounds = priceBounds;
+        this.discountBounds = discountBounds;
+        this.priceLabels = labels(priceBounds);
+        this.discountLabels = labels(discountBounds);
+        this.byPriceBand = newDocIdSets(priceBounds.length + 1);
+        this.byDiscountBand = newDocIdSets(discountBounds.length + 1);
+    }
+
+    void add(FacetedProduct product) {
+        Integer existing = docByProduct.get(product.getProductId());
+        int docId;
+        if (existing != null) {
+            docId = existing;
+            clearValues(docId);
+        } else {
+            docId = docCount++;
+            ensureCapacity(docCount);
+            live.set(docId);
+            liveCount++;
+            docByProduct.put(product.getProductId(), docId);
+            productIds[docId] = product.getProductId();
+        }
+
+        categoryIds[docId] = product.getCategoryId();
+        prices[docId] = product.getSpecialPrice();
+        discounts[docId] = product.getDiscount();
+        priceBands[docId] = band(priceBounds, product.getSpecialPrice());
+        discountBands[docId] = band(discountBounds, product.getDiscount());
+        if (product.getCategoryId() != null) {
+            byCategory.computeIfAbsent(product.getCategoryId(), c -> new DocIdSet()).set(docId);
+        }
+        byPriceBand[priceBands[docId]].set(docId);
+        byDiscountBand[discountBands[docId]].set(docId);
+        if (product.getQuantity() != null && product.getQuantity() > 0) {
+            inStock.set(docId);
+        }
+    }
+
+    boolean remove(Long productId) {
+        Integer docId = docByProduct.remove(productId);
+        if (docId == null) {
+            return false;
+        }
+        clearValues(docId);
+        live.clear(docId);
+        liveCount--;
+        return true;
+    }
+
+    private void clearValues(int docId) {
+        Long categoryId = categoryIds[docId];
+        if (categoryId != null) {
+            DocIdSet category = byCategory.get(categoryId);
+            category.clear(docId);
+            if (category.isEmpty()) {
+                byCategory.remove(categoryId);
+            }
+        }
+        byPriceBand[priceBands[docId]].clear(docId);
+        byDiscountBand[discountBands[docId]].clear(docId);
+        inStock.clear(docId);
+    }
+
+    @Override
+    public FacetIndexData compact() {
+        FacetIndexData compacted = new FacetIndexData(priceBounds, discountBounds);
+        for (int docId = live.nextSetBit(0); docId >= 0; docId = live.nextSetBit(docId + 1)) {
+            // Only whether the product is in stock is kept, so that is all the quantity has to carry
+            compacted.add(new FacetedProduct(productIds[docId], categoryIds[docId],
+                    inStock.get(docId) ? 1 : 0, prices[docId], discounts[docId]));
+        }
+        return compacted;
+    }
+
+    @Override
+    public int liveCount() {
+        return liveCount;
+    }
+
+    @Override
+    public int deadCount() {
+        return docCount - liveCount;
+    }
+
+    boolean isPriceBand(String label) {
+        return Arrays.asList(priceLabels).contains(label);
+    }
+
+    boolean isDiscountBand(String label) {
+        return Arrays.asList(discountLabels).contains(label);
+    }
+
+    FacetSearchPage search(FacetFilter filter, int pageNumber, int pageSize) {
+        DocIdSet categoryMatch = categoryMatch(filter.getCategoryIds());
+        DocIdSet priceMatch = bandMatch(filter.getPriceBands(), byPriceBand, priceLabels);
+        DocIdSet discountMatch = bandMatch(filter.getDiscountBands(), byDiscountBand, discountLabels);
+        DocIdSet stockMatch = stockMatch(filter.getInStock());
+
+        DocIdSet matches = intersect(categoryMatch, priceMatch, discountMatch, stockMatch);
+        long from = (long) pageNumber * pageSize;
+        List<Long> page = new ArrayList<>(pageSize);
+        int skipped = 0;
+        for (int docId = matches.nextSetBit(0); docId >= 0 && page.size() < pageSize; docId = matches.nextSetBit(docId + 1)) {
+            if (skipped++ >= from) {
+                page.add(productIds[docId]);
+            }
+        }
+
+        // Each facet is counted under every filter except its own, so selecting one value
+        // does not hide the alternatives
+        Map<String, List<FacetCountDTO>> facets = new LinkedHashMap<>();
+        facets.put(CATEGORY, categoryCounts(intersect(null, priceMatch, discountMatch, stockMatch), filter.getCategoryIds()));
+        facets.put(PRICE, bandCounts(intersect(categoryMatch, null, discountMatch, stockMatch), byPriceBand, priceLabels,
+                filter.getPriceBands()));
+        facets.put(DISCOUNT, bandCounts(intersect(categoryMatch, priceMatch, null, stockMatch), byDiscountBand, discountLabels,
+                filter.getDiscountBands()));
+        facets.put(IN_STOCK, stockCounts(intersect(categoryMatch, priceMatch, discountMatch, null), filter.getInStock()));
+        return new FacetSearchPage(page, matches.cardinality(), facets);
+    }
+
+    private DocIdSet categoryMatch(List<Long> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return null;
+        }
+        DocIdSet match = new DocIdSet();
+        for (Long categoryId : categoryIds) {
+            DocIdSet category = byCategory.get(categoryId);
+            if (category != null) {
+                match.or(category);
+            }
+        }
+        return match;
+    }
+
+    private static DocIdSet bandMatch(List<String> selected, DocIdSet[] bands, String[] labels) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        DocIdSet match = new DocIdSet();
+        for (int band = 0; band < labels.length; band++) {
+            if (selected.contains(labels[band])) {
+                match.or(bands[band]);
+            }
+        }
+        return match;
+    }
+
+    private DocIdSet stockMatch(Boolean wantInStock) {
+        if (wantInStock == null) {
+            return null;
+        }
+        DocIdSet match = live.copy();
+        if (wantInStock) {
+            match.and(inStock);
+        } else {
+            match.andNot(inStock);
+        }
+        return match;
+    }
+
+    private DocIdSet intersect(DocIdSet... filters) {
+        DocIdSet result = live.copy();
+        for (DocIdSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private List<FacetCountDTO> categoryCounts(DocIdSet base, List<Long> selected) {
+        List<FacetCountDTO> counts = new ArrayList<>();
+        byCategory.forEach((categoryId, docs) -> {
+            boolean isSelected = selected != null && selected.contains(categoryId);
+            long count = countIn(base, docs);
+            if (count > 0 || isSelected) {
+                counts.add(new FacetCountDTO(String.valueOf(categoryId), count, isSelected));
+            }
+        });
+        counts.sort(Comparator.comparingLong(FacetCountDTO::getCount).reversed()
+                .thenComparing(count -> Long.valueOf(count.getValue())));
+        return counts;
+    }
+
+    private List<FacetCountDTO> bandCounts(DocIdSet base, DocIdSet[] bands, String[] labels, List<String> selected) {
+        List<FacetCountDTO> counts = new ArrayList<>(bands.length);
+        for (int band = 0; band < bands.length; band++) {
+            boolean isSelected = selected != null && selected.contains(labels[band]);
+            counts.add(new FacetCountDTO(labels[band], countIn(base, bands[band]), isSelected));
+        }
+        return counts;
+    }
+
+    private List<FacetCountDTO> stockCounts(DocIdSet base, Boolean selected) {
+        long available = countIn(base, inStock);
+        return List.of(
+                new FacetCountDTO("true", available, Boolean.TRUE.equals(selected)),
+                new FacetCountDTO("false", base.cardinality() - available, Boolean.FALSE.equals(selected)));
+    }
+
+    private static long countIn(DocIdSet base, DocIdSet docs) {
+        return base.andCardinality(docs);
+    }
+
+    private static int band(double[] bounds, double value) {
+        int band = 0;
+        while (band < bounds.length && value >= bounds[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private static String[] labels(double[] bounds) {
+        String[] labels = new String[bounds.length + 1];
+        for (int band = 0; band <= bounds.length; band++) {
+            String low = band == 0 ? "0" : format(bounds[band - 1]);
+            labels[band] = band == bounds.length ? low + "+" : low + "-" + format(bounds[band]);
+        }
+        return labels;
+    }
+
+    private static String format(double bound) {
+        return BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+    }
+
+    private static DocIdSet[] newDocIdSets(int count) {
+        DocIdSet[] bitSets = new DocIdSet[count];
+        for (int i = 0; i < count; i++) {
+            bitSets[i] = new DocIdSet();
+        }
+        return bitSets;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > productIds.length) {
+            int newLength = Math.max(productIds.length * 2, capacity);
+            productIds = Arrays.copyOf(productIds, newLength);
+            categoryIds = Arrays.copyOf(categoryIds, newLength);
+            prices = Arrays.copyOf(prices, newLength);
+            discounts = Arrays.copyOf(discounts, newLength);
+            priceBands = Arrays.copyOf(priceBands, newLength);
+            discountBands = Arrays.copyOf(discountBands, newLength);
+        }
+    }
+}
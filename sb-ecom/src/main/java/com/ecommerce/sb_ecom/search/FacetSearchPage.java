@@ -0,0 +1,17 @@
+package com.ecommerce.sb_ecom.search;
+
+import com.ecommerce.sb_ecom.payload.FacetCountDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class FacetSearchPage {
+    private List<Long> productIds;
+    private long totalElements;
+    // Facet name to the count of each value, counted with every other facet's filter applied
+    private Map<String, List<FacetCountDTO>> facets;
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.sb_ecom.search;
+
+import com.ecommerce.sb_ecom.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The product columns the facet index filters on, used as the JPQL projection for
+ * its rebuild and for refreshing repriced rows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedProduct {
+    private Long productId;
+    private Long categoryId;
+    private Integer quantity;
+    private double specialPrice;
+    private double discount;
+
+    public static FacetedProduct from(Product product) {
+        Long categoryId = product.getCategory() == null ? null : product.getCategory().getCategoryId();
+        return new FacetedProduct(product.getProductId(), categoryId, product.getQuantity(),
+                product.getSpecialPrice(), product.getDiscount());
+    }
+}
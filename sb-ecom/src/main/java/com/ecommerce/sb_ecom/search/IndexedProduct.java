@@ -0,0 +1,28 @@
+package com.ecommerce.sb_ecom.search;
+
+import com.ecommerce.sb_ecom.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Slim copy of the product columns the search index needs, used both as the
+ * JPQL projection for the startup rebuild and as the stored document.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexedProduct {
+    private Long productId;
+    private String productName;
+    private String description;
+    private Integer quantity;
+    private double price;
+    private double specialPrice;
+    private double discount;
+
+    public static IndexedProduct from(Product product) {
+        return new IndexedProduct(product.getProductId(), product.getProductName(), product.getDescription(),
+                product.getQuantity(), product.getPrice(), product.getSpecialPrice(), product.getDiscount());
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.sb_ecom.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable sorted list of internal doc ids. Doc ids are handed out in increasing
+ * order, so adds are always appends and the list stays sorted without inserts.
+ */
+class PostingList {
+
+    private int[] ids = new int[2];
+    private int size;
+
+    void add(int docId) {
+        if (size > 0 && ids[size - 1] == docId) {
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = docId;
+    }
+
+    void addAll(PostingList other, int offset) {
+        if (size + other.size > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(ids.length * 2, size + other.size));
+        }
+        for (int i = 0; i < other.size; i++) {
+            ids[size++] = other.ids[i] + offset;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return ids[index];
+    }
+
+    static int[] intersect(int[] left, int leftSize, PostingList right) {
+        int[] result = new int[Math.min(leftSize, right.size)];
+        int i = 0, j = 0, k = 0;
+        while (i < leftSize && j < right.size) {
+            if (left[i] == right.ids[j]) {
+                result[k++] = left[i];
+                i++;
+                j++;
+            } else if (left[i] < right.ids[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.sb_ecom.search;
+
+import com.ecommerce.sb_ecom.event.CategoryDeletedEvent;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductsImportedEvent;
+import com.ecommerce.sb_ecom.event.ProductsRepricedEvent;
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * In-memory facet index over category, special price band, discount band and stock
+ * status. Filters and per-value counts are bitset intersections, so a faceted listing
+ * costs no GROUP BY queries. Built from the DB at startup and kept current from
+ * product events afterwards.
+ */
+@Component
+public class ProductFacetIndex extends RebuildableIndex<FacetIndexData> {
+
+    @Value("${catalog.facets.price-bands:25,50,100,250,500,1000}")
+    private double[] priceBands;
+
+    @Value("${catalog.facets.discount-bands:10,25,50}")
+    private double[] discountBands;
+
+    @Value("${catalog.facets.rebuild-chunk-size:50000}")
+    private int rebuildChunkSize;
+
+    public ProductFacetIndex() {
+        super("Product facet index");
+    }
+
+    @Override
+    protected FacetIndexData newData() {
+        return new FacetIndexData(priceBands, discountBands);
+    }
+
+    @Override
+    protected FacetIndexData load() {
+        FacetIndexData rebuilt = newData();
+        for (long[] range : productIdRanges(rebuildChunkSize)) {
+            productRepository.findFacetedProductsInRange(range[0], range[1]).forEach(rebuilt::add);
+        }
+        return rebuilt;
+    }
+
+    @Override
+    protected int sizeOf(FacetIndexData data) {
+        return data.liveCount();
+    }
+
+    public FacetSearchPage search(FacetFilter filter, int pageNumber, int pageSize) {
+        if (!isReady()) {
+            throw new APIException("Product filters are still loading, please try again shortly");
+        }
+        return read(data -> {
+            if (filter.getPriceBands() != null) {
+                for (String band : filter.getPriceBands()) {
+                    if (!data.isPriceBand(band)) {
+                        throw new APIException("Unknown price band: " + band);
+                    }
+                }
+            }
+            if (filter.getDiscountBands() != null) {
+                for (String band : filter.getDiscountBands()) {
+                    if (!data.isDiscountBand(band)) {
+                        throw new APIException("Unknown discount band: " + band);
+                    }
+                }
+            }
+            return data.search(filter, pageNumber, pageSize);
+        });
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.IMAGE_UPDATED) {
+            return;
+        }
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.DELETED) {
+            Long productId = event.getProductId();
+            apply(index -> index.remove(productId));
+        } else {
+            FacetedProduct product = FacetedProduct.from(event.getProduct());
+            apply(index -> index.add(product));
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        List<FacetedProduct> products = event.getProducts().stream().map(FacetedProduct::from).toList();
+        apply(index -> products.forEach(index::add));
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        List<Long> productIds = event.getProductIds();
+        apply(index -> productIds.forEach(index::remove));
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsRepriced(ProductsRepricedEvent event) {
+        List<FacetedProduct> products = productRepository.findFacetedProductsByIds(event.getProductIds());
+        apply(index -> products.forEach(index::add));
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecommerce.sb_ecom.search;
+
+import com.ecommerce.sb_ecom.event.CategoryDeletedEvent;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductsImportedEvent;
+import com.ecommerce.sb_ecom.event.ProductsRepricedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * In-memory replacement for the LIKE '%keyword%' product search. Built in parallel
+ * from the DB at startup and kept current from ProductChangedEvents afterwards.
+ * Until the first build finishes {@link #isReady()} is false and callers should
+ * fall back to the repository query.
+ */
+@Component
+public class ProductSearchIndex extends RebuildableIndex<SearchIndexData> {
+
+    @Value("${search.index.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${search.index.rebuild-chunk-size:50000}")
+    private int rebuildChunkSize;
+
+    public ProductSearchIndex() {
+        super("Product search index");
+    }
+
+    @Override
+    protected SearchIndexData newData() {
+        return new SearchIndexData();
+    }
+
+    @Override
+    protected SearchIndexData load() throws InterruptedException, ExecutionException {
+        SearchIndexData rebuilt = new SearchIndexData();
+        List<long[]> ranges = productIdRanges(rebuildChunkSize);
+        if (ranges.isEmpty()) {
+            return rebuilt;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            List<Future<SearchIndexData>> chunks = new ArrayList<>();
+            for (long[] range : ranges) {
+                chunks.add(executor.submit(() -> {
+                    SearchIndexData chunk = new SearchIndexData();
+                    productRepository.findIndexedProductsInRange(range[0], range[1]).forEach(chunk::add);
+                    return chunk;
+                }));
+            }
+            // Chunks cover ascending id ranges, so appending them in order keeps postings sorted
+            for (Future<SearchIndexData> chunk : chunks) {
+                rebuilt.append(chunk.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return rebuilt;
+    }
+
+    @Override
+    protected int sizeOf(SearchIndexData data) {
+        return data.liveCount();
+    }
+
+    /**
+     * Whether a search for the keyword finds a product with this name and description,
+     * for callers that need to know which keyword results a product write can change.
+     */
+    public static boolean matches(String keyword, String productName, String description) {
+        return SearchIndexData.matches(keyword, productName, description);
+    }
+
+    public ProductSearchPage search(String keyword, int pageNumber, int pageSize, String sortBy, String sortOrder) {
+        return read(data -> {
+            Map<Integer, Integer> scores = data.search(keyword);
+            List<Integer> hits = new ArrayList<>(scores.keySet());
+            hits.sort(comparator(data, scores, sortBy, sortOrder));
+
+            int from = (int) Math.min((long) pageNumber * pageSize, hits.size());
+            int to = Math.min(from + pageSize, hits.size());
+            List<Long> productIds = new ArrayList<>(to - from);
+            for (Integer docId : hits.subList(from, to)) {
+                productIds.add(data.doc(docId).getProductId());
+            }
+            return new ProductSearchPage(productIds, hits.size());
+        });
+    }
+
+    // The default sort (productId) ranks by relevance; any other sortable column is honoured as given
+    private Comparator<Integer> comparator(SearchIndexData data, Map<Integer, Integer> scores, String sortBy, String sortOrder) {
+        Comparator<IndexedProduct> byField = switch (sortBy) {
+            case "productName" -> Comparator.comparing(IndexedProduct::getProductName, String.CASE_INSENSITIVE_ORDER);
+            case "price" -> Comparator.comparingDouble(IndexedProduct::getPrice);
+            case "specialPrice" -> Comparator.comparingDouble(IndexedProduct::getSpecialPrice);
+            case "discount" -> Comparator.comparingDouble(IndexedProduct::getDiscount);
+            case "quantity" -> Comparator.comparing(IndexedProduct::getQuantity, Comparator.nullsFirst(Comparator.naturalOrder()));
+            default -> null;
+        };
+        Comparator<IndexedProduct> byId = Comparator.comparing(IndexedProduct::getProductId);
+
+        Comparator<Integer> result;
+        if (byField == null) {
+            Comparator<Integer> byScore = Comparator.comparing(scores::get);
+            result = byScore.reversed().thenComparing(docId -> data.doc(docId), byId);
+        } else {
+            Comparator<IndexedProduct> ordered = byField.thenComparing(byId);
+            if (sortOrder.equalsIgnoreCase("desc")) {
+                ordered = ordered.reversed();
+            }
+            result = Comparator.comparing(docId -> data.doc(docId), ordered);
+        }
+        return result;
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.IMAGE_UPDATED) {
+            return;
+        }
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.DELETED) {
+            Long productId = event.getProductId();
+            apply(index -> index.remove(productId));
+        } else {
+            IndexedProduct product = IndexedProduct.from(event.getProduct());
+            apply(index -> index.add(product));
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        List<IndexedProduct> products = event.getProducts().stream().map(IndexedProduct::from).toList();
+        apply(index -> products.forEach(index::add));
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        List<Long> productIds = event.getProductIds();
+        apply(index -> productIds.forEach(index::remove));
+    }
+
+    // Prices only matter for sorting, but the index has no partial update, so the rows are re-read
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsRepriced(ProductsRepricedEvent event) {
+        List<IndexedProduct> products = productRepository.findIndexedProductsByIds(event.getProductIds());
+        apply(index -> products.forEach(index::add));
+    }
+}
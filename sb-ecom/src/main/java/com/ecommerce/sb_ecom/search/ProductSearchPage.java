@@ -0,0 +1,13 @@
+package com.ecommerce.sb_ecom.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductSearchPage {
+    private List<Long> productIds;
+    private long totalElements;
+}
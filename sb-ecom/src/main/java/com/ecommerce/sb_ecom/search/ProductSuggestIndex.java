@@ -0,0 +1,144 @@
+package com.ecommerce.sb_ecom.search;
+
+import com.ecommerce.sb_ecom.event.CategoryChangedEvent;
+import com.ecommerce.sb_ecom.event.CategoryDeletedEvent;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductsImportedEvent;
+import com.ecommerce.sb_ecom.event.ProductsOrderedEvent;
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.SuggestionDTO;
+import com.ecommerce.sb_ecom.repositories.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typeahead over product and category names, ranked by popularity: units ordered for
+ * products, product count for categories. Built from the DB at startup and kept
+ * current from product, category and order events afterwards.
+ */
+@Component
+public class ProductSuggestIndex extends RebuildableIndex<SuggestIndexData> {
+
+    public static final String PRODUCT = "product";
+    public static final String CATEGORY = "category";
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Value("${catalog.suggest.rebuild-chunk-size:50000}")
+    private int rebuildChunkSize;
+
+    public ProductSuggestIndex() {
+        super("Product suggest index");
+    }
+
+    @Override
+    protected SuggestIndexData newData() {
+        return new SuggestIndexData();
+    }
+
+    @Override
+    protected SuggestIndexData load() {
+        SuggestIndexData rebuilt = new SuggestIndexData();
+        for (SuggestSource category : categoryRepository.findSuggestSources()) {
+            rebuilt.add(CATEGORY, category.getId(), category.getName(), 1 + category.getPopularity());
+        }
+        for (long[] range : productIdRanges(rebuildChunkSize)) {
+            for (SuggestSource product : productRepository.findSuggestSourcesInRange(range[0], range[1])) {
+                rebuilt.add(PRODUCT, product.getId(), product.getName(), 1 + product.getPopularity());
+            }
+        }
+        rebuilt.merge();
+        return rebuilt;
+    }
+
+    @Override
+    protected int sizeOf(SuggestIndexData data) {
+        return data.size();
+    }
+
+    /**
+     * Returns up to {@code limit} names with a word starting with {@code query}, most
+     * popular first. Empty while the index is still loading.
+     */
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        return read(data -> data.suggest(query, limit));
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long productId = event.getProductId();
+        Long categoryId = event.getCategoryId();
+        switch (event.getChangeType()) {
+            case CREATED -> {
+                String name = event.getProduct().getProductName();
+                apply(index -> {
+                    index.put(PRODUCT, productId, name, 1);
+                    index.addWeight(CATEGORY, categoryId, 1);
+                });
+            }
+            case UPDATED -> {
+                String name = event.getProduct().getProductName();
+                apply(index -> {
+                    Long weight = index.weightOf(PRODUCT, productId);
+                    index.put(PRODUCT, productId, name, weight == null ? 1 : weight);
+                });
+            }
+            case DELETED -> apply(index -> {
+                index.remove(PRODUCT, productId);
+                index.addWeight(CATEGORY, categoryId, -1);
+            });
+            default -> {
+            }
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        Long categoryId = event.getCategoryId();
+        List<Product> products = event.getProducts();
+        apply(index -> {
+            for (Product product : products) {
+                index.put(PRODUCT, product.getProductId(), product.getProductName(), 1);
+            }
+            index.addWeight(CATEGORY, categoryId, products.size());
+        });
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Long categoryId = event.getCategoryId();
+        String name = event.getCategoryName();
+        apply(index -> {
+            Long weight = index.weightOf(CATEGORY, categoryId);
+            index.put(CATEGORY, categoryId, name, weight == null ? 1 : weight);
+        });
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        Long categoryId = event.getCategoryId();
+        List<Long> productIds = event.getProductIds();
+        apply(index -> {
+            index.remove(CATEGORY, categoryId);
+            productIds.forEach(productId -> index.remove(PRODUCT, productId));
+        });
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsOrdered(ProductsOrderedEvent event) {
+        Map<Long, Integer> quantities = event.getQuantities();
+        apply(index -> quantities.forEach((productId, quantity) -> index.addWeight(PRODUCT, productId, quantity)));
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.sb_ecom.search;
+
+import com.ecommerce.sb_ecom.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * An in-memory catalog index that is read from the DB on a background thread at startup
+ * and kept current from events afterwards. Reads and changes go through a read/write
+ * lock; until the first build finishes {@link #isReady()} is false.
+ */
+public abstract class RebuildableIndex<D> {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private D data;
+    private volatile boolean ready;
+
+    // Changes that arrive while a rebuild is reading the DB are replayed onto the new index
+    private boolean rebuilding;
+    private final List<Consumer<D>> pendingChanges = new ArrayList<>();
+
+    protected RebuildableIndex(String name) {
+        this.name = name;
+    }
+
+    protected abstract D newData();
+
+    // Reads the whole index from the DB, without holding the lock
+    protected abstract D load() throws InterruptedException, ExecutionException;
+
+    protected abstract int sizeOf(D data);
+
+    @PostConstruct
+    void init() {
+        data = newData();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(this::rebuild, name.toLowerCase().replace(' ', '-') + "-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pendingChanges.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        D rebuilt;
+        try {
+            rebuilt = load();
+        } catch (RuntimeException | InterruptedException | ExecutionException e) {
+            logger.error("{} rebuild failed: {}", name, e.getMessage());
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                pendingChanges.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(rebuilt));
+            pendingChanges.clear();
+            data = compactIfNeeded(rebuilt);
+            rebuilding = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("{} built with {} entries in {} ms", name, sizeOf(rebuilt), System.currentTimeMillis() - start);
+    }
+
+    protected <T> T read(Function<D, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(data);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    protected void apply(Consumer<D> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(data);
+            if (rebuilding) {
+                pendingChanges.add(change);
+            }
+            data = compactIfNeeded(data);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ascending [from, to) product id ranges of chunkSize ids that cover every product
+    protected List<long[]> productIdRanges(int chunkSize) {
+        List<long[]> ranges = new ArrayList<>();
+        Long minId = productRepository.findMinProductId();
+        Long maxId = productRepository.findMaxProductId();
+        if (minId != null && maxId != null) {
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                ranges.add(new long[]{from, from + chunkSize});
+            }
+        }
+        return ranges;
+    }
+
+    // Compaction rewrites the whole index, so it waits until removals have left more dead documents than live ones
+    @SuppressWarnings("unchecked")
+    private D compactIfNeeded(D current) {
+        if (current instanceof CompactableIndexData<?> compactable
+                && compactable.deadCount() > 1024 && compactable.deadCount() > compactable.liveCount()) {
+            return (D) compactable.compact();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,206 @@
+package com.ecommerce.sb_ecom.search;
+
+import java.util.*;
+
+/**
+ * One generation of the product search index: trigram postings over the product
+ * name (keeps the substring semantics of the old LIKE query) and word postings
+ * over the description. Not thread safe, ProductSearchIndex guards it.
+ */
+class SearchIndexData implements CompactableIndexData<SearchIndexData> {
+
+    static final int NAME_MATCH_SCORE = 10;
+    static final int NAME_PREFIX_BONUS = 3;
+    static final int NAME_EXACT_BONUS = 5;
+    static final int DESCRIPTION_MATCH_SCORE = 2;
+
+    private IndexedProduct[] docs = new IndexedProduct[1024];
+    private String[] names = new String[1024];
+    private int docCount;
+    private int liveCount;
+    private final BitSet live = new BitSet();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    private final Map<String, PostingList> nameGrams = new HashMap<>();
+    private final Map<String, PostingList> descriptionTokens = new HashMap<>();
+
+    void add(IndexedProduct product) {
+        remove(product.getProductId());
+        int docId = docCount++;
+        ensureCapacity(docCount);
+        String name = normalize(product.getProductName());
+        docs[docId] = product;
+        names[docId] = name;
+        live.set(docId);
+        liveCount++;
+        docByProduct.put(product.getProductId(), docId);
+
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            nameGrams.computeIfAbsent(name.substring(i, i + 3), g -> new PostingList()).add(docId);
+        }
+        for (String token : tokenize(product.getDescription())) {
+            descriptionTokens.computeIfAbsent(token, t -> new PostingList()).add(docId);
+        }
+    }
+
+    boolean remove(Long productId) {
+        Integer docId = docByProduct.remove(productId);
+        if (docId == null) {
+            return false;
+        }
+        live.clear(docId);
+        docs[docId] = null;
+        names[docId] = null;
+        liveCount--;
+        return true;
+    }
+
+    // Appends a chunk built independently (doc ids starting at 0) behind the current docs
+    void append(SearchIndexData chunk) {
+        int offset = docCount;
+        ensureCapacity(docCount + chunk.docCount);
+        System.arraycopy(chunk.docs, 0, docs, offset, chunk.docCount);
+        System.arraycopy(chunk.names, 0, names, offset, chunk.docCount);
+        for (int docId = chunk.live.nextSetBit(0); docId >= 0; docId = chunk.live.nextSetBit(docId + 1)) {
+            live.set(docId + offset);
+        }
+        chunk.docByProduct.forEach((productId, docId) -> docByProduct.put(productId, docId + offset));
+        chunk.nameGrams.forEach((gram, postings) ->
+                nameGrams.computeIfAbsent(gram, g -> new PostingList()).addAll(postings, offset));
+        chunk.descriptionTokens.forEach((token, postings) ->
+                descriptionTokens.computeIfAbsent(token, t -> new PostingList()).addAll(postings, offset));
+        docCount += chunk.docCount;
+        liveCount += chunk.liveCount;
+    }
+
+    @Override
+    public SearchIndexData compact() {
+        SearchIndexData compacted = new SearchIndexData();
+        for (int docId = live.nextSetBit(0); docId >= 0; docId = live.nextSetBit(docId + 1)) {
+            compacted.add(docs[docId]);
+        }
+        return compacted;
+    }
+
+    @Override
+    public int liveCount() {
+        return liveCount;
+    }
+
+    @Override
+    public int deadCount() {
+        return docCount - liveCount;
+    }
+
+    IndexedProduct doc(int docId) {
+        return docs[docId];
+    }
+
+    /**
+     * Returns matching doc ids with their relevance score. A product matches when its
+     * name contains the keyword or its description contains every word of it.
+     */
+    Map<Integer, Integer> search(String keyword) {
+        String term = normalize(keyword);
+        Map<Integer, Integer> scores = new HashMap<>();
+        if (term.isEmpty()) {
+            return scores;
+        }
+
+        if (term.length() >= 3) {
+            int[] candidates = intersectAll(nameGrams, trigrams(term));
+            for (int docId : candidates) {
+                scoreName(docId, term, scores);
+            }
+        } else {
+            // Too short for a trigram, a scan over the names is still cheaper than the DB
+            for (int docId = live.nextSetBit(0); docId >= 0; docId = live.nextSetBit(docId + 1)) {
+                scoreName(docId, term, scores);
+            }
+        }
+
+        List<String> words = tokenize(term);
+        if (!words.isEmpty()) {
+            for (int docId : intersectAll(descriptionTokens, words)) {
+                if (live.get(docId)) {
+                    scores.merge(docId, DESCRIPTION_MATCH_SCORE, Integer::sum);
+                }
+            }
+        }
+        return scores;
+    }
+
+    // The same rule as search, for a single product held outside the index
+    static boolean matches(String keyword, String productName, String description) {
+        String term = normalize(keyword);
+        if (term.isEmpty()) {
+            return false;
+        }
+        if (normalize(productName).contains(term)) {
+            return true;
+        }
+        List<String> words = tokenize(term);
+        return !words.isEmpty() && new HashSet<>(tokenize(description)).containsAll(words);
+    }
+
+    private void scoreName(int docId, String term, Map<Integer, Integer> scores) {
+        String name = names[docId];
+        if (!live.get(docId) || !name.contains(term)) {
+            return;
+        }
+        int score = NAME_MATCH_SCORE;
+        if (name.startsWith(term)) {
+            score += NAME_PREFIX_BONUS;
+        }
+        if (name.equals(term)) {
+            score += NAME_EXACT_BONUS;
+        }
+        scores.merge(docId, score, Integer::sum);
+    }
+
+    private static int[] intersectAll(Map<String, PostingList> postings, Collection<String> keys) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            PostingList list = postings.get(key);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        int[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = PostingList.intersect(result, result.length, lists.get(i));
+        }
+        return result;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > docs.length) {
+            int newLength = Math.max(docs.length * 2, capacity);
+            docs = Arrays.copyOf(docs, newLength);
+            names = Arrays.copyOf(names, newLength);
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> trigrams(String term) {
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            grams.add(term.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
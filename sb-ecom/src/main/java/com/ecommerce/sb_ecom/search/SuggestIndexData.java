@@ -0,0 +1,361 @@
+package com.ecommerce.sb_ecom.search;
+
+import com.ecommerce.sb_ecom.payload.SuggestionDTO;
+
+import java.util.*;
+
+/**
+ * One generation of the suggest index. Every word start of a name is a key, so "phone"
+ * finds "Apple iPhone" as well as "Phone case". Keys live in one sorted array, a prefix
+ * is a contiguous range of it, and a max-weight segment tree over the array pulls the
+ * top k of a range in O(k log n). Keys added since the last merge sit in a small
+ * unsorted delta that is scanned per query and folded into the array once it grows.
+ * Not thread safe, ProductSuggestIndex guards it.
+ */
+class SuggestIndexData {
+
+    static final int MERGE_THRESHOLD = 1024;
+
+    private static class Term {
+        final String type;
+        final Long refId;
+        final String text;
+        long weight;
+        boolean alive = true;
+        int[] positions = new int[0];
+
+        Term(String type, Long refId, String text, long weight) {
+            this.type = type;
+            this.refId = refId;
+            this.text = text;
+            this.weight = weight;
+        }
+    }
+
+    private final List<Term> terms = new ArrayList<>();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private int deadTerms;
+
+    private String[] keys = new String[0];
+    private int[] keyTerms = new int[0];
+    // tree[leaves + i] is position i when its term is alive, -1 otherwise; inner nodes hold the heavier child
+    private int[] tree = new int[0];
+    private int leaves;
+
+    private final List<String> deltaKeys = new ArrayList<>();
+    private final List<Integer> deltaTerms = new ArrayList<>();
+
+    void put(String type, Long refId, String text, long weight) {
+        add(type, refId, text, weight);
+        if (deltaKeys.size() > MERGE_THRESHOLD) {
+            merge();
+        }
+    }
+
+    /**
+     * Adds or replaces a term without folding the delta, for bulk loads that call
+     * {@link #merge()} once at the end.
+     */
+    void add(String type, Long refId, String text, long weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String termKey = type + ":" + refId;
+        Integer existing = termIds.get(termKey);
+        if (existing != null) {
+            Term term = terms.get(existing);
+            if (term.text.equals(text)) {
+                setWeight(existing, weight);
+                return;
+            }
+            remove(type, refId);
+        }
+        int termId = terms.size();
+        terms.add(new Term(type, refId, text, weight));
+        termIds.put(termKey, termId);
+        for (String key : keysOf(text)) {
+            deltaKeys.add(key);
+            deltaTerms.add(termId);
+        }
+    }
+
+    void remove(String type, Long refId) {
+        Integer termId = termIds.remove(type + ":" + refId);
+        if (termId == null) {
+            return;
+        }
+        Term term = terms.get(termId);
+        term.alive = false;
+        deadTerms++;
+        for (int position : term.positions) {
+            updateLeaf(position);
+        }
+        if (deadTerms > MERGE_THRESHOLD && deadTerms > termIds.size()) {
+            compact();
+        }
+    }
+
+    Long weightOf(String type, Long refId) {
+        Integer termId = termIds.get(type + ":" + refId);
+        return termId == null ? null : terms.get(termId).weight;
+    }
+
+    void addWeight(String type, Long refId, long delta) {
+        Integer termId = termIds.get(type + ":" + refId);
+        if (termId != null) {
+            setWeight(termId, terms.get(termId).weight + delta);
+        }
+    }
+
+    private void setWeight(int termId, long weight) {
+        Term term = terms.get(termId);
+        term.weight = weight;
+        for (int position : term.positions) {
+            updateLeaf(position);
+        }
+    }
+
+    int size() {
+        return termIds.size();
+    }
+
+    List<SuggestionDTO> suggest(String query, int limit) {
+        String prefix = normalize(query).stripLeading();
+        List<SuggestionDTO> suggestions = new ArrayList<>();
+        if (prefix.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+
+        // Best candidates of the sorted array and of the delta, merged by weight
+        List<Integer> candidates = new ArrayList<>();
+        int from = lowerBound(prefix);
+        int to = prefixEnd(prefix, from);
+        if (from < to) {
+            topOfRange(from, to - 1, limit, candidates);
+        }
+        for (int i = 0; i < deltaKeys.size(); i++) {
+            if (deltaKeys.get(i).startsWith(prefix) && terms.get(deltaTerms.get(i)).alive) {
+                candidates.add(deltaTerms.get(i));
+            }
+        }
+        candidates.sort((left, right) -> compareTerms(left, right));
+
+        Set<String> seen = new HashSet<>();
+        for (int termId : candidates) {
+            Term term = terms.get(termId);
+            if (seen.add(normalize(term.text))) {
+                suggestions.add(new SuggestionDTO(term.text, term.type, term.refId));
+                if (suggestions.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    // Pops ranges off a heap keyed by their heaviest position; each pop emits one term and splits
+    // its range in two. Collects a few extra terms so duplicates can be dropped afterwards.
+    private void topOfRange(int from, int to, int limit, List<Integer> out) {
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((left, right) ->
+                compareTerms(keyTerms[left[2]], keyTerms[right[2]]));
+        pushRange(ranges, from, to);
+        Set<Integer> emitted = new HashSet<>();
+        while (!ranges.isEmpty() && emitted.size() < limit * 2) {
+            int[] range = ranges.poll();
+            int position = range[2];
+            if (emitted.add(keyTerms[position])) {
+                out.add(keyTerms[position]);
+            }
+            pushRange(ranges, range[0], position - 1);
+            pushRange(ranges, position + 1, range[1]);
+        }
+    }
+
+    private void pushRange(PriorityQueue<int[]> ranges, int from, int to) {
+        if (from > to) {
+            return;
+        }
+        int best = rangeBest(from, to);
+        if (best >= 0) {
+            ranges.add(new int[]{from, to, best});
+        }
+    }
+
+    private int rangeBest(int from, int to) {
+        int best = -1;
+        for (int left = from + leaves, right = to + leaves + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                best = heavier(best, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                best = heavier(best, tree[--right]);
+            }
+        }
+        return best;
+    }
+
+    private void updateLeaf(int position) {
+        int node = position + leaves;
+        tree[node] = terms.get(keyTerms[position]).alive ? position : -1;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    private int heavier(int left, int right) {
+        if (left < 0) {
+            return right;
+        }
+        if (right < 0) {
+            return left;
+        }
+        return compareTerms(keyTerms[left], keyTerms[right]) <= 0 ? left : right;
+    }
+
+    // Heavier first, then alphabetical
+    private int compareTerms(int left, int right) {
+        Term leftTerm = terms.get(left);
+        Term rightTerm = terms.get(right);
+        int byWeight = Long.compare(rightTerm.weight, leftTerm.weight);
+        return byWeight != 0 ? byWeight : leftTerm.text.compareToIgnoreCase(rightTerm.text);
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int prefixEnd(String prefix, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Folds the delta into the sorted array. Only the delta is sorted, the two are then
+     * merged in one linear pass, so frequent small merges stay cheap on a large index.
+     */
+    void merge() {
+        if (deadTerms > MERGE_THRESHOLD && deadTerms > termIds.size()) {
+            compact();
+            return;
+        }
+        Integer[] order = new Integer[deltaKeys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(deltaKeys::get));
+
+        String[] mergedKeys = new String[keys.length + order.length];
+        int[] mergedTerms = new int[mergedKeys.length];
+        int size = 0;
+        for (int i = 0, j = 0; i < keys.length || j < order.length; ) {
+            boolean fromArray = j == order.length
+                    || (i < keys.length && keys[i].compareTo(deltaKeys.get(order[j])) <= 0);
+            String key = fromArray ? keys[i] : deltaKeys.get(order[j]);
+            int termId = fromArray ? keyTerms[i++] : deltaTerms.get(order[j++]);
+            if (terms.get(termId).alive) {
+                mergedKeys[size] = key;
+                mergedTerms[size++] = termId;
+            }
+        }
+        deltaKeys.clear();
+        deltaTerms.clear();
+        install(Arrays.copyOf(mergedKeys, size), Arrays.copyOf(mergedTerms, size));
+    }
+
+    // Drops removed terms for good and renumbers the rest, which means re-deriving every key
+    private void compact() {
+        List<Term> liveTerms = new ArrayList<>(termIds.size());
+        for (Term term : terms) {
+            if (term.alive) {
+                liveTerms.add(term);
+            }
+        }
+        terms.clear();
+        termIds.clear();
+        deadTerms = 0;
+        deltaKeys.clear();
+        deltaTerms.clear();
+
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Term term : liveTerms) {
+            int termId = terms.size();
+            terms.add(term);
+            termIds.put(term.type + ":" + term.refId, termId);
+            for (String key : keysOf(term.text)) {
+                entries.add(Map.entry(key, termId));
+            }
+        }
+        entries.sort(Map.Entry.comparingByKey());
+
+        String[] sortedKeys = new String[entries.size()];
+        int[] sortedTerms = new int[entries.size()];
+        for (int position = 0; position < entries.size(); position++) {
+            sortedKeys[position] = entries.get(position).getKey();
+            sortedTerms[position] = entries.get(position).getValue();
+        }
+        install(sortedKeys, sortedTerms);
+    }
+
+    private void install(String[] sortedKeys, int[] sortedTerms) {
+        keys = sortedKeys;
+        keyTerms = sortedTerms;
+
+        int[] counts = new int[terms.size()];
+        for (int termId : keyTerms) {
+            counts[termId]++;
+        }
+        for (int termId = 0; termId < terms.size(); termId++) {
+            terms.get(termId).positions = new int[counts[termId]];
+            counts[termId] = 0;
+        }
+        for (int position = 0; position < keyTerms.length; position++) {
+            int termId = keyTerms[position];
+            terms.get(termId).positions[counts[termId]++] = position;
+        }
+
+        leaves = Integer.highestOneBit(Math.max(1, keys.length - 1)) << 1;
+        tree = new int[2 * leaves];
+        Arrays.fill(tree, -1);
+        for (int position = 0; position < keys.length; position++) {
+            tree[leaves + position] = position;
+        }
+        for (int node = leaves - 1; node >= 1; node--) {
+            tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    static Set<String> keysOf(String text) {
+        String normalized = normalize(text).strip();
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(normalized.charAt(i))) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+}
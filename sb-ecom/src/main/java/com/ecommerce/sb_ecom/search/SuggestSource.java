@@ -0,0 +1,17 @@
+package com.ecommerce.sb_ecom.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A name and its popularity, the JPQL projection the suggest index is built from.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestSource {
+    private Long id;
+    private String name;
+    private Long popularity;
+}
@@ -1,12 +1,12 @@
 package com.ecommerce.sb_ecom.service;
 
 import com.ecommerce.sb_ecom.exceptions.ResourceNotFoundException;
+import com.ecommerce.sb_ecom.mapper.AddressMapper;
 import com.ecommerce.sb_ecom.model.Address;
 import com.ecommerce.sb_ecom.model.User;
 import com.ecommerce.sb_ecom.payload.AddressDTO;
 import com.ecommerce.sb_ecom.repositories.AddressRepository;
 import com.ecommerce.sb_ecom.repositories.UserRepository;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -17,7 +17,7 @@ import java.util.stream.Collectors;
 public class AddressServiceImplementation  implements  AddressService{
 
     @Autowired
-    ModelMapper modelMapper;
+    AddressMapper addressMapper;
 
     @Autowired
     AddressRepository addressRepository;
@@ -27,21 +27,21 @@ public class AddressServiceImplementation  implements  AddressService{
 
     @Override
     public AddressDTO createAddress(AddressDTO addressDTO, User user) {
-        Address address = modelMapper.map(addressDTO, Address.class);
+        Address address = addressMapper.toEntity(addressDTO);
         List<Address> addressList = user.getAddresses();
         addressList.add(address);
         user.setAddresses(addressList);
 
         address.setUser(user);
         Address savedAddress = addressRepository.save(address);
-        return modelMapper.map(savedAddress,AddressDTO.class);
+        return addressMapper.toDTO(savedAddress);
     }
 
     @Override
     public List<AddressDTO> getAddresses() {
        List<Address> addresses = addressRepository.findAll();
       return addresses.stream()
-               .map(address->modelMapper.map(address,AddressDTO.class))
+               .map(address->addressMapper.toDTO(address))
                .collect(Collectors.toList());
 
     }
@@ -50,7 +50,7 @@ public class AddressServiceImplementation  implements  AddressService{
     public AddressDTO getAddressById(Long addressId) {
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(()->new ResourceNotFoundException("Address","addressId",addressId));
-        return modelMapper.map(address,AddressDTO.class);
+        return addressMapper.toDTO(address);
 
     }
 
@@ -58,7 +58,7 @@ public class AddressServiceImplementation  implements  AddressService{
     public List<AddressDTO> getUserAddresses(User user) {
         List<Address> addresses = user.getAddresses();
         return addresses.stream()
-                .map(address->modelMapper.map(address,AddressDTO.class))
+                .map(address->addressMapper.toDTO(address))
                 .collect(Collectors.toList());
     }
 
@@ -82,7 +82,7 @@ public class AddressServiceImplementation  implements  AddressService{
 
         userRepository.save(user);
 
-        return modelMapper.map(updatedAddress,AddressDTO.class);
+        return addressMapper.toDTO(updatedAddress);
     }
 
     @Override
@@ -1,15 +1,18 @@
 package com.ecommerce.sb_ecom.service;
 
+import com.ecommerce.sb_ecom.payload.CartCursorResponse;
 import com.ecommerce.sb_ecom.payload.CartDTO;
 import com.ecommerce.sb_ecom.payload.CartItemDTO;
 import jakarta.transaction.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface CartService {
      CartDTO addProductToCart(Long productId, Integer quantity);
-     List<CartDTO> getAllCarts();
+     CartCursorResponse getCartsByCursor(String cursor, Integer pageSize, boolean nonEmpty, Instant updatedSince, Double minTotal);
      CartDTO getCart(String emailId, Long cartId);
+     CartDTO getUserCart(String emailId);
      @Transactional
      CartDTO updateProductQuantityInCart(Long productId, Integer quantity);
 
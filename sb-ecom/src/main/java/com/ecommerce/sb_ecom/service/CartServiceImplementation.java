@@ -1,27 +1,42 @@
 package com.ecommerce.sb_ecom.service;
 
+import com.ecommerce.sb_ecom.cache.CartViewCache;
+import com.ecommerce.sb_ecom.cart.CartListing;
+import com.ecommerce.sb_ecom.cart.CartLockStripes;
+import com.ecommerce.sb_ecom.cart.CartViewLine;
+import com.ecommerce.sb_ecom.event.CartChangedEvent;
 import com.ecommerce.sb_ecom.exceptions.APIException;
 import com.ecommerce.sb_ecom.exceptions.ResourceNotFoundException;
+import com.ecommerce.sb_ecom.mapper.CartMapper;
 import com.ecommerce.sb_ecom.model.Cart;
 import com.ecommerce.sb_ecom.model.CartItem;
 import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.CartCursorResponse;
 import com.ecommerce.sb_ecom.payload.CartDTO;
 import com.ecommerce.sb_ecom.payload.CartItemDTO;
-import com.ecommerce.sb_ecom.payload.ProductDTO;
 import com.ecommerce.sb_ecom.repositories.CartItemRepository;
 import com.ecommerce.sb_ecom.repositories.CartRepository;
 import com.ecommerce.sb_ecom.repositories.ProductRepository;
 import com.ecommerce.sb_ecom.util.AuthUtil;
-import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
+@ConditionalOnProperty(name = "cart.engine", havingValue = "database", matchIfMissing = true)
 public class CartServiceImplementation  implements  CartService{
 
     @Autowired
@@ -37,93 +52,79 @@ public class CartServiceImplementation  implements  CartService{
     AuthUtil authUtil;
 
     @Autowired
-    ModelMapper modelMapper;
+    CartMapper cartMapper;
 
-    @Override
-    public CartDTO addProductToCart(Long productId, Integer quantity) {
-
-        // Find exisiting cart or create one
-        Cart cart  = createCart();
-
-        //Retrieve product details
-        Product product = productRepository.findById(productId)
-                .orElseThrow(()-> new ResourceNotFoundException("Product","productId",productId));
-
-
-        //Perform validations
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(
-                cart.getCartId(),
-                productId);
-        if(cartItem!=null) {
-            throw new APIException("Product " + product.getProductName() + " already exists in cart.");
-        }
+    @Autowired
+    CartLockStripes cartLocks;
 
-        if(product.getQuantity()==0){
-            throw new APIException("Product "+product.getProductName()+" is not available.");
-        }
+    @Autowired
+    CartViewCache cartViewCache;
 
-        if(product.getQuantity()<quantity){
-            throw new APIException("Please, make an order of the "+product.getProductName()
-            +" less than or equal to the quantity "+product.getQuantity());
-        }
+    @Autowired
+    CartListing cartListing;
 
-        //Create cart Item
-        CartItem newCartItem = new CartItem();
-        newCartItem.setProduct(product);
-        newCartItem.setCart(cart);
-        newCartItem.setQuantity(quantity);
-        newCartItem.setDiscount(product.getDiscount());
-        newCartItem.setProductPrice(product.getSpecialPrice());
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
 
-        //Save Cart Item
-        cartItemRepository.save(newCartItem);
-        product.setQuantity(product.getQuantity());
+    @PersistenceContext
+    private EntityManager entityManager;
 
-        cart.setTotalPrice(cart.getTotalPrice()+(product.getSpecialPrice()*quantity));
+    @Override
+    public CartDTO addProductToCart(Long productId, Integer quantity) {
 
-        cartRepository.save(cart);
+        // Find exisiting cart or create one
+        Long cartId = cartIdOf(authUtil.loggedInEmail());
 
-        //Return updated cart
-        CartDTO cartDTO = modelMapper.map(cart,CartDTO.class);
+        return cartLocks.update(cartId, status -> {
+            Cart cart = cartForUpdate(cartId);
+            if (cart == null) {
+                // Expired by AbandonedCartSweeper since it was looked up
+                throw new ResourceNotFoundException("Cart", "cartId", cartId);
+            }
 
-        List<CartItem> cartItems = cart.getCartItems();
+            //Retrieve product details
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(()-> new ResourceNotFoundException("Product","productId",productId));
 
-        Stream<ProductDTO> productDTOStream = cartItems.stream()
-                .map(item->{
-                    ProductDTO map = modelMapper.map(item.getProduct(),ProductDTO.class);
-                    map.setQuantity(item.getQuantity());
-                    return  map;
-                });
-        cartDTO.setProducts(productDTOStream.toList());
-        return cartDTO;
-    }
 
+            //Perform validations
+            if(lineOf(cart, productId)!=null) {
+                throw new APIException("Product " + product.getProductName() + " already exists in cart.");
+            }
 
-    @Override
-    public List<CartDTO> getAllCarts() {
-        List<Cart> carts = cartRepository.findAll();
+            if(product.getQuantity()==0){
+                throw new APIException("Product "+product.getProductName()+" is not available.");
+            }
 
-        if (carts.size() == 0) {
-            throw new APIException("No cart exists");
-        }
+            if(product.getQuantity()<quantity){
+                throw new APIException("Please, make an order of the "+product.getProductName()
+                +" less than or equal to the quantity "+product.getQuantity());
+            }
 
-        List<CartDTO> cartDTOs = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+            //Create cart Item
+            CartItem newCartItem = new CartItem();
+            newCartItem.setProduct(product);
+            newCartItem.setCart(cart);
+            newCartItem.setQuantity(quantity);
+            newCartItem.setDiscount(product.getDiscount());
+            newCartItem.setProductPrice(product.getSpecialPrice());
 
-            List<ProductDTO> products = cart.getCartItems().stream().map(cartItem -> {
-                ProductDTO productDTO = modelMapper.map(cartItem.getProduct(), ProductDTO.class);
-                productDTO.setQuantity(cartItem.getQuantity()); // Set the quantity from CartItem
-                return productDTO;
-            }).collect(Collectors.toList());
+            //Save Cart Item
+            cartItemRepository.save(newCartItem);
+            cart.getCartItems().add(newCartItem);
 
+            cart.setTotalPrice(cart.getTotalPrice()+(product.getSpecialPrice()*quantity));
+            eventPublisher.publishEvent(new CartChangedEvent(cartId));
 
-            cartDTO.setProducts(products);
-
-            return cartDTO;
+            //Return updated cart
+            return cartMapper.toDTO(cart);
+        });
+    }
 
-        }).collect(Collectors.toList());
 
-        return cartDTOs;
+    @Override
+    public CartCursorResponse getCartsByCursor(String cursor, Integer pageSize, boolean nonEmpty, Instant updatedSince, Double minTotal) {
+        return cartListing.page(cursor, pageSize, nonEmpty, updatedSince, minTotal);
     }
 
 
@@ -133,195 +134,233 @@ public class CartServiceImplementation  implements  CartService{
         if (cart == null){
             throw new ResourceNotFoundException("Cart", "cartId", cartId);
         }
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-        cart.getCartItems().forEach(c ->
-                c.getProduct().setQuantity(c.getQuantity()));
-        List<ProductDTO> products = cart.getCartItems().stream()
-                .map(p -> modelMapper.map(p.getProduct(), ProductDTO.class))
-                .toList();
-        cartDTO.setProducts(products);
-        return cartDTO;
+        return cartMapper.toDTO(cart);
+    }
+
+    // The cart, its lines and their products in one query without loading an entity, then served from
+    // the cache until a change to the cart or to one of its products commits
+    @Override
+    public CartDTO getUserCart(String emailId) {
+        return cartViewCache.get(emailId, () -> {
+            List<CartViewLine> lines = cartRepository.findCartViewByEmail(emailId);
+            if (lines.isEmpty()) {
+                throw new ResourceNotFoundException("Cart", "email", emailId);
+            }
+            return cartListing.toDTO(lines);
+        });
     }
 
-    @Transactional
     @Override
     public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
 
         String emailId = authUtil.loggedInEmail();
-        Cart userCart = cartRepository.findCartByEmail(emailId);
-        Long cartId  = userCart.getCartId();
-
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
-
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-        if (product.getQuantity() == 0) {
-            throw new APIException(product.getProductName() + " is not available");
-        }
-
-        if (product.getQuantity() < quantity) {
-            throw new APIException("Please, make an order of the " + product.getProductName()
-                    + " less than or equal to the quantity " + product.getQuantity() + ".");
+        Long cartId = cartRepository.findCartIdByEmail(emailId);
+        if (cartId == null) {
+            throw new ResourceNotFoundException("Cart", "email", emailId);
         }
 
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
+        return cartLocks.update(cartId, status -> {
+            Cart cart = cartForUpdate(cartId);
+            if (cart == null) {
+                throw new ResourceNotFoundException("Cart", "email", emailId);
+            }
 
-        if (cartItem == null) {
-            throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
-        }
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        // Calculate new quantity
-        int newQuantity = cartItem.getQuantity() + quantity;
+            if (product.getQuantity() == 0) {
+                throw new APIException(product.getProductName() + " is not available");
+            }
 
-        // Validation to prevent negative quantities
-        if (newQuantity < 0) {
-            throw new APIException("The resulting quantity cannot be negative.");
-        }
+            if (product.getQuantity() < quantity) {
+                throw new APIException("Please, make an order of the " + product.getProductName()
+                        + " less than or equal to the quantity " + product.getQuantity() + ".");
+            }
 
-        if (newQuantity == 0){
-            deleteProductFromCart(cartId, productId);
-        } else {
-            cartItem.setProductPrice(product.getSpecialPrice());
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-            cartItem.setDiscount(product.getDiscount());
-            cart.setTotalPrice(cart.getTotalPrice() + (cartItem.getProductPrice() * quantity));
-            cartRepository.save(cart);
-        }
+            CartItem cartItem = lineOf(cart, productId);
 
-        CartItem updatedItem = cartItemRepository.save(cartItem);
-        if(updatedItem.getQuantity() == 0){
-            cartItemRepository.deleteById(updatedItem.getCartItemId());
-        }
+            if (cartItem == null) {
+                throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+            }
 
+            // Calculate new quantity
+            int newQuantity = cartItem.getQuantity() + quantity;
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+            // Validation to prevent negative quantities
+            if (newQuantity < 0) {
+                throw new APIException("The resulting quantity cannot be negative.");
+            }
 
-        List<CartItem> cartItems = cart.getCartItems();
+            if (newQuantity == 0){
+                removeLine(cart, cartItem);
+            } else {
+                cartItem.setProductPrice(product.getSpecialPrice());
+                cartItem.setQuantity(newQuantity);
+                cartItem.setDiscount(product.getDiscount());
+                cart.setTotalPrice(cart.getTotalPrice() + (cartItem.getProductPrice() * quantity));
+            }
+            eventPublisher.publishEvent(new CartChangedEvent(cartId));
 
-        Stream<ProductDTO> productStream = cartItems.stream().map(item -> {
-            ProductDTO prd = modelMapper.map(item.getProduct(), ProductDTO.class);
-            prd.setQuantity(item.getQuantity());
-            return prd;
+            return cartMapper.toDTO(cart);
         });
-
-
-        cartDTO.setProducts(productStream.toList());
-
-        return cartDTO;
     }
 
 
-    private Cart createCart() {
-        Cart userCart  = cartRepository.findCartByEmail(authUtil.loggedInEmail());
-        if(userCart != null){
-            return userCart;
+    // Only the id is needed up front, to take the cart's lock before reading it
+    private Long cartIdOf(String emailId) {
+        Long cartId = cartRepository.findCartIdByEmail(emailId);
+        if (cartId != null) {
+            return cartId;
         }
 
         Cart cart = new Cart();
         cart.setTotalPrice(0.00);
         cart.setUser(authUtil.loggedInUser());
-        Cart newCart =  cartRepository.save(cart);
+        try {
+            return cartRepository.save(cart).getCartId();
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent first request of the same user
+            return cartRepository.findCartIdByEmail(emailId);
+        }
+    }
 
-        return newCart;
+    // Read inside the change's transaction; the version is bumped on commit even when only the lines change
+    private Cart cartForUpdate(Long cartId) {
+        Cart cart = cartRepository.findCartWithItemsById(cartId);
+        if (cart != null) {
+            entityManager.lock(cart, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        }
+        return cart;
+    }
+
+    private static CartItem lineOf(Cart cart, Long productId) {
+        for (CartItem cartItem : cart.getCartItems()) {
+            if (cartItem.getProduct().getProductId().equals(productId)) {
+                return cartItem;
+            }
+        }
+        return null;
+    }
+
+    // Orphan removal deletes the line when the transaction commits
+    private static void removeLine(Cart cart, CartItem cartItem) {
+        cart.setTotalPrice(cart.getTotalPrice() -
+                (cartItem.getProductPrice() * cartItem.getQuantity()));
+        cart.getCartItems().remove(cartItem);
     }
 
 
-    @Transactional
     @Override
     public String deleteProductFromCart(Long cartId, Long productId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
+        return cartLocks.update(cartId, status -> {
+            Cart cart = cartForUpdate(cartId);
+            if (cart == null) {
+                throw new ResourceNotFoundException("Cart", "cartId", cartId);
+            }
 
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
-
-        if (cartItem == null) {
-            throw new ResourceNotFoundException("Product", "productId", productId);
-        }
+            CartItem cartItem = lineOf(cart, productId);
 
-        cart.setTotalPrice(cart.getTotalPrice() -
-                (cartItem.getProductPrice() * cartItem.getQuantity()));
+            if (cartItem == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
 
-        cartItemRepository.deleteCartItemByProductIdAndCartId(cartId, productId);
+            removeLine(cart, cartItem);
+            eventPublisher.publishEvent(new CartChangedEvent(cartId));
 
-        return "Product " + cartItem.getProduct().getProductName() + " removed from the cart !!!";
+            return "Product " + cartItem.getProduct().getProductName() + " removed from the cart !!!";
+        });
     }
 
 
     @Override
     public void updateProductInCarts(Long cartId, Long productId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
+        cartLocks.update(cartId, status -> {
+            Cart cart = cartForUpdate(cartId);
+            if (cart == null) {
+                throw new ResourceNotFoundException("Cart", "cartId", cartId);
+            }
 
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        if (cartItem == null) {
-            throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
-        }
+            CartItem cartItem = lineOf(cart, productId);
 
-        double cartPrice = cart.getTotalPrice()
-                - (cartItem.getProductPrice() * cartItem.getQuantity());
+            if (cartItem == null) {
+                throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+            }
 
-        cartItem.setProductPrice(product.getSpecialPrice());
+            double cartPrice = cart.getTotalPrice()
+                    - (cartItem.getProductPrice() * cartItem.getQuantity());
 
-        cart.setTotalPrice(cartPrice
-                + (cartItem.getProductPrice() * cartItem.getQuantity()));
+            cartItem.setProductPrice(product.getSpecialPrice());
+            cartItem.setDiscount(product.getDiscount());
 
-        cartItem = cartItemRepository.save(cartItem);
+            cart.setTotalPrice(cartPrice
+                    + (cartItem.getProductPrice() * cartItem.getQuantity()));
+            eventPublisher.publishEvent(new CartChangedEvent(cartId));
+            return null;
+        });
     }
 
-    @Transactional
     @Override
     public String createOrUpdateCartWithItems(List<CartItemDTO> cartItems) {
         // Get user's email
         String emailId = authUtil.loggedInEmail();
 
-        // Check if an existing cart is available or create a new one
-        Cart existingCart = cartRepository.findCartByEmail(emailId);
-        if (existingCart == null) {
-            existingCart = new Cart();
-            existingCart.setTotalPrice(0.00);
-            existingCart.setUser(authUtil.loggedInUser());
-            existingCart = cartRepository.save(existingCart);
-        } else {
-            // Clear all current items in the existing cart
-            cartItemRepository.deleteAllByCartId(existingCart.getCartId());
-        }
-
-        double totalPrice = 0.00;
-
-        // Process each item in the request to add to the cart
+        // Requested quantity per product, a product listed twice counts once
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
         for (CartItemDTO cartItemDTO : cartItems) {
-            Long productId = cartItemDTO.getProductId();
-            Integer quantity = cartItemDTO.getQuantity();
-
-            // Find the product by ID
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-            // Directly update product stock and total price
-            // product.setQuantity(product.getQuantity() - quantity);
-            totalPrice += product.getSpecialPrice() * quantity;
-
-            // Create and save cart item
-            CartItem cartItem = new CartItem();
-            cartItem.setProduct(product);
-            cartItem.setCart(existingCart);
-            cartItem.setQuantity(quantity);
-            cartItem.setProductPrice(product.getSpecialPrice());
-            cartItem.setDiscount(product.getDiscount());
-            cartItemRepository.save(cartItem);
+            quantities.merge(cartItemDTO.getProductId(), cartItemDTO.getQuantity(), Integer::sum);
         }
 
-        // Update the cart's total price and save
-        existingCart.setTotalPrice(totalPrice);
-        cartRepository.save(existingCart);
-        return "Cart created/updated with the new items successfully";
+        // Check if an existing cart is available or create a new one
+        Long cartId = cartIdOf(emailId);
+
+        // A fixed number of statements whatever the size of the cart: the cart with its lines, the products
+        // in one query, then the line inserts, updates and deletes as JDBC batches on commit
+        return cartLocks.update(cartId, status -> {
+            Cart existingCart = cartForUpdate(cartId);
+            if (existingCart == null) {
+                throw new ResourceNotFoundException("Cart", "cartId", cartId);
+            }
+
+            Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                    .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+            for (Long productId : quantities.keySet()) {
+                if (!products.containsKey(productId)) {
+                    throw new ResourceNotFoundException("Product", "productId", productId);
+                }
+            }
+
+            // Lines no longer wanted go, orphan removal deletes them
+            Map<Long, CartItem> existingLines = new HashMap<>();
+            existingCart.getCartItems().removeIf(cartItem -> !quantities.containsKey(cartItem.getProduct().getProductId()));
+            existingCart.getCartItems().forEach(cartItem -> existingLines.put(cartItem.getProduct().getProductId(), cartItem));
+
+            double totalPrice = 0.00;
+
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                Product product = products.get(entry.getKey());
+                Integer quantity = entry.getValue();
+                totalPrice += product.getSpecialPrice() * quantity;
+
+                // Lines kept are only updated when something differs, new ones are persisted through the cart
+                CartItem cartItem = existingLines.get(entry.getKey());
+                if (cartItem == null) {
+                    cartItem = new CartItem();
+                    cartItem.setProduct(product);
+                    cartItem.setCart(existingCart);
+                    existingCart.getCartItems().add(cartItem);
+                }
+                cartItem.setQuantity(quantity);
+                cartItem.setProductPrice(product.getSpecialPrice());
+                cartItem.setDiscount(product.getDiscount());
+            }
+
+            // Update the cart's total price
+            existingCart.setTotalPrice(totalPrice);
+            eventPublisher.publishEvent(new CartChangedEvent(cartId));
+            return "Cart created/updated with the new items successfully";
+        });
     }
 }
-
-
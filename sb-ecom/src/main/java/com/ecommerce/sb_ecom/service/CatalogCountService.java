@@ -0,0 +1,12 @@
+package com.ecommerce.sb_ecom.service;
+
+import com.ecommerce.sb_ecom.model.Category;
+
+public interface CatalogCountService {
+
+    long countAllProducts();
+
+    long countProductsByCategory(Category category);
+
+    long countProductsByKeyword(String keyword);
+}
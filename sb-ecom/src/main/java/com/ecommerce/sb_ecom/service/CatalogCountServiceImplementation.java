@@ -0,0 +1,149 @@
+package com.ecommerce.sb_ecom.service;
+
+import com.ecommerce.sb_ecom.event.CategoryDeletedEvent;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductsImportedEvent;
+import com.ecommerce.sb_ecom.model.Category;
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate product totals for paged listings. Counts are cached per scope,
+ * nudged by product creates/deletes/renames and re-counted once their TTL runs out,
+ * so the count(*) only runs once per TTL instead of once per page view.
+ */
+@Service
+public class CatalogCountServiceImplementation implements CatalogCountService {
+
+    private static final String ALL_KEY = "all";
+    private static final String CATEGORY_KEY = "category:";
+    private static final String KEYWORD_KEY = "keyword:";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${catalog.count.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${catalog.count.max-keywords:10000}")
+    private int maxKeywords;
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public long countAllProducts() {
+        return count(ALL_KEY, () -> productRepository.count());
+    }
+
+    @Override
+    public long countProductsByCategory(Category category) {
+        return count(CATEGORY_KEY + category.getCategoryId(), () -> productRepository.countByCategory(category));
+    }
+
+    @Override
+    public long countProductsByKeyword(String keyword) {
+        String term = keyword.toLowerCase();
+        if (counts.size() > maxKeywords) {
+            counts.keySet().removeIf(key -> key.startsWith(KEYWORD_KEY));
+        }
+        return count(KEYWORD_KEY + term, () -> productRepository.countByProductNameLikeIgnoreCase("%" + keyword + "%"));
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        String name = event.getProduct().getProductName();
+        switch (event.getChangeType()) {
+            case CREATED -> {
+                adjust(ALL_KEY, 1);
+                adjust(CATEGORY_KEY + event.getCategoryId(), 1);
+                adjustKeywords(List.of(name), 1);
+            }
+            case DELETED -> {
+                adjust(ALL_KEY, -1);
+                adjust(CATEGORY_KEY + event.getCategoryId(), -1);
+                adjustKeywords(List.of(name), -1);
+            }
+            case UPDATED -> {
+                adjustKeywords(Collections.singletonList(event.getPreviousProductName()), -1);
+                adjustKeywords(List.of(name), 1);
+            }
+            case IMAGE_UPDATED -> { }
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        List<Product> products = event.getProducts();
+        adjust(ALL_KEY, products.size());
+        adjust(CATEGORY_KEY + event.getCategoryId(), products.size());
+        adjustKeywords(products.stream().map(Product::getProductName).toList(), 1);
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        adjust(ALL_KEY, -event.getProductIds().size());
+        counts.remove(CATEGORY_KEY + event.getCategoryId());
+        // Names of the removed products are unknown here, let keyword totals be recounted
+        counts.keySet().removeIf(key -> key.startsWith(KEYWORD_KEY));
+    }
+
+    private long count(String key, LongSupplier loader) {
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.value;
+        }
+        long value = loader.getAsLong();
+        counts.put(key, new CachedCount(value, now + ttlSeconds * 1_000_000_000L));
+        return value;
+    }
+
+    private void adjust(String key, long delta) {
+        counts.computeIfPresent(key, (k, cached) -> new CachedCount(Math.max(0, cached.value + delta), cached.expiresAt));
+    }
+
+    // One pass over the cached keywords, however many names changed
+    private void adjustKeywords(List<String> productNames, long delta) {
+        List<String> names = productNames.stream()
+                .filter(Objects::nonNull)
+                .map(String::toLowerCase)
+                .toList();
+        if (names.isEmpty()) {
+            return;
+        }
+        for (String key : counts.keySet()) {
+            if (key.startsWith(KEYWORD_KEY)) {
+                String keyword = key.substring(KEYWORD_KEY.length());
+                long matches = names.stream().filter(name -> name.contains(keyword)).count();
+                if (matches > 0) {
+                    adjust(key, delta * matches);
+                }
+            }
+        }
+    }
+
+    private static class CachedCount {
+        private final long value;
+        private final long expiresAt;
+
+        private CachedCount(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
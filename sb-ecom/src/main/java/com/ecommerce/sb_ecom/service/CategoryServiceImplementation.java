@@ -1,30 +1,81 @@
 package com.ecommerce.sb_ecom.service;
 
+import com.ecommerce.sb_ecom.config.AppConstants;
+import com.ecommerce.sb_ecom.event.CategoryChangedEvent;
+import com.ecommerce.sb_ecom.event.CategoryDeletedEvent;
 import com.ecommerce.sb_ecom.exceptions.APIException;
 import com.ecommerce.sb_ecom.exceptions.ResourceNotFoundException;
+import com.ecommerce.sb_ecom.mapper.CategoryMapper;
 import com.ecommerce.sb_ecom.model.Category;
+import com.ecommerce.sb_ecom.payload.CategoryCursorResponse;
 import com.ecommerce.sb_ecom.payload.CategoryDTO;
 import com.ecommerce.sb_ecom.payload.CategoryResponse;
+import com.ecommerce.sb_ecom.repositories.CartItemRepository;
+import com.ecommerce.sb_ecom.repositories.CartRepository;
 import com.ecommerce.sb_ecom.repositories.CategoryRepository;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.sb_ecom.repositories.OrderItemRepository;
+import com.ecommerce.sb_ecom.repositories.ProductRepository;
+import com.ecommerce.sb_ecom.repositories.StoredImageRepository;
+import com.ecommerce.sb_ecom.util.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class CategoryServiceImplementation implements CategoryService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CategoryServiceImplementation.class);
 
     @Autowired
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private StoredImageRepository storedImageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.cursor.max-page-size:500}")
+    private int maxCursorPageSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillProductCounts() {
+        Integer backfilled = transactionTemplate.execute(status -> categoryRepository.backfillProductCounts());
+        if (backfilled != null && backfilled > 0) {
+            logger.info("Backfilled product counts of {} categories", backfilled);
+        }
+    }
 
     @Override
     public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize,String sortBy,String sortOrder) {
@@ -36,7 +87,7 @@ public class CategoryServiceImplementation implements CategoryService {
         if (categories.isEmpty()) {
             throw new APIException("No category created till now.");
         }
-        List<CategoryDTO> categoryDTOS = categories.stream().map((Category category)-> modelMapper.map(category,CategoryDTO.class)).toList();
+        List<CategoryDTO> categoryDTOS = categories.stream().map((Category category)-> categoryMapper.toDTO(category)).toList();
         CategoryResponse categoryResponse = new CategoryResponse();
         categoryResponse.setContent(categoryDTOS);
         categoryResponse.setPageNumber(categoryPage.getNumber());
@@ -47,33 +98,90 @@ public class CategoryServiceImplementation implements CategoryService {
         return categoryResponse;
     }
 
+    @Override
+    public CategoryCursorResponse getCategoriesByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder) {
+        if (pageSize < 1 || pageSize > maxCursorPageSize) {
+            throw new APIException("Page size must be between 1 and " + maxCursorPageSize);
+        }
+        KeysetCursor position = cursor == null ? null : KeysetCursor.decode(cursor);
+        if (position != null) {
+            sortBy = position.getSortBy();
+            sortOrder = position.getSortOrder();
+        }
+        if (!AppConstants.CATEGORY_SORT_FIELDS.contains(sortBy)) {
+            throw new APIException("Categories cannot be sorted by " + sortBy);
+        }
+        boolean ascending = sortOrder.equalsIgnoreCase("asc");
+
+        List<Category> categories = categoryRepository.findCategoriesAfter(sortBy, ascending,
+                position == null ? null : position.getLastKey(),
+                position == null ? null : position.getLastId(),
+                pageSize + 1);
+        boolean lastPage = categories.size() <= pageSize;
+        if (!lastPage) {
+            categories = categories.subList(0, pageSize);
+        }
+
+        String next = null;
+        if (!lastPage) {
+            Category last = categories.get(categories.size() - 1);
+            next = new KeysetCursor(sortBy, sortOrder, last.getCategoryId(), categoryRepository.sortKeyOf(last, sortBy)).encode();
+        }
+
+        List<CategoryDTO> categoryDTOS = categories.stream().map(category -> categoryMapper.toDTO(category)).toList();
+        return new CategoryCursorResponse(categoryDTOS, pageSize, next, lastPage);
+    }
+
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
-        Category category = modelMapper.map(categoryDTO,Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
         Category categoryfromDB = categoryRepository.findByCategoryName(category.getCategoryName());
         if(categoryfromDB!=null)
             throw new APIException(("Category with the name: "+category.getCategoryName()+" already exists."));
+        category.setProductCount(0L);
         Category savedCategory = categoryRepository.save(category);
-        return  modelMapper.map(savedCategory,CategoryDTO.class);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getCategoryId(), savedCategory.getCategoryName()));
+        return  categoryMapper.toDTO(savedCategory);
     }
 
+    /**
+     * Removes the category and its products with a fixed number of set-based statements
+     * in one transaction, however many products the category holds. Cart totals lose the
+     * removed lines, order lines are kept without their product.
+     */
     @Override
     public CategoryDTO deleteCategory(Long categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(()->new ResourceNotFoundException("Category","categoryId",categoryId));
-     categoryRepository.delete(category);
-        return modelMapper.map(category,CategoryDTO.class);
+        long start = System.currentTimeMillis();
+        List<Long> productIds = new ArrayList<>();
+        Category category = transactionTemplate.execute(status -> {
+            Category categoryDB = categoryRepository.findById(categoryId)
+                    .orElseThrow(()->new ResourceNotFoundException("Category","categoryId",categoryId));
+            productIds.addAll(productRepository.findProductIdsByCategory(categoryId));
+            cartRepository.removeCategoryFromTotals(categoryId);
+            cartItemRepository.deleteByProductCategory(categoryId);
+            orderItemRepository.detachProductsOfCategory(categoryId);
+            storedImageRepository.releaseImagesOfCategory(categoryId);
+            productRepository.deleteByCategoryId(categoryId);
+            categoryRepository.delete(categoryDB);
+            return categoryDB;
+        });
+        // Indexes and caches only hear about it once the rows are gone for good
+        eventPublisher.publishEvent(new CategoryDeletedEvent(categoryId, productIds));
+        logger.info("Deleted category {} with {} products in {} ms",
+                categoryId, productIds.size(), System.currentTimeMillis() - start);
+        return categoryMapper.toDTO(category);
     }
 
     @Override
     public CategoryDTO updateCategory(CategoryDTO categoryDTO, Long categoryId) {
 
-        Category  category = modelMapper.map(categoryDTO,Category.class);
         Category savedCategory = categoryRepository.findById(categoryId)
                .orElseThrow(()->new ResourceNotFoundException("Category","categoryId",categoryId));
-       category.setCategoryId(categoryId);
-       savedCategory = categoryRepository.save(category);
-       CategoryDTO savedCategoryDTO = modelMapper.map(savedCategory,CategoryDTO.class);
+       // Only the name comes from the request, the maintained product count stays as it is
+       savedCategory.setCategoryName(categoryDTO.getCategoryName());
+       savedCategory = categoryRepository.save(savedCategory);
+       eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getCategoryId(), savedCategory.getCategoryName()));
+       CategoryDTO savedCategoryDTO = categoryMapper.toDTO(savedCategory);
        return  savedCategoryDTO;
 //        Optional<Category> optionalCategory = categories.stream().
 //                filter(c->c.getCategoryId()==categoryId).
@@ -6,5 +6,9 @@ import java.io.IOException;
 
 public interface FileService {
 
+    // Stores the upload under its content hash and takes a reference on it; joins the caller's transaction
     String uploadImage(String path, MultipartFile file) throws IOException;
+
+    // Drops a reference taken by uploadImage, the file is collected in the background once unreferenced
+    void releaseImage(String fileName);
 }
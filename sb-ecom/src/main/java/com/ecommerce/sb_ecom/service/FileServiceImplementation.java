@@ -1,36 +1,100 @@
 package com.ecommerce.sb_ecom.service;
 
+import com.ecommerce.sb_ecom.repositories.StoredImageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
+/**
+ * Content addressed image store: an upload is hashed while it is streamed to a temp file
+ * and then stored as <sha-256>.<ext>, so the same bytes uploaded for many products are
+ * kept on disk, resized and cached once. Every product showing a file holds a reference
+ * on its stored_images row.
+ */
 @Service
 public class FileServiceImplementation implements FileService{
 
+    private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,10}");
+
+    @Autowired
+    private StoredImageRepository storedImageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Override
     public String uploadImage(String path, MultipartFile file) throws IOException {
 
-        //file names of current / original file
-        String originalFileName = file.getOriginalFilename();
+        // Check if path exist and create
+        Path folder = Paths.get(path).toAbsolutePath();
+        Files.createDirectories(folder);
 
-        // Generate a unique file name
-        String randomId = UUID.randomUUID().toString();
-        String fileName = randomId.concat(originalFileName.substring(originalFileName.lastIndexOf('.')));
-        String filePath = path+ File.separator+fileName;
+        // Single pass over the upload: hashed on the way to a temp file next to its final place
+        Path temp = Files.createTempFile(folder, ".upload", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream input = new DigestInputStream(file.getInputStream(), digest)) {
+                size = Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String contentHash = HexFormat.of().formatHex(digest.digest());
 
-        // Check if path exist and create
-        File folder = new File(path);
-        if(!folder.exists())
-            folder.mkdir();
+            // Joins the caller's transaction; the claimed row stays locked until it commits
+            return transactionTemplate.execute(status -> {
+                storedImageRepository.claim(contentHash, contentHash + extension(file.getOriginalFilename()), size);
+                // Identical bytes uploaded earlier keep the name they were first stored under
+                String fileName = storedImageRepository.findFileNameByContentHash(contentHash);
+                Path target = folder.resolve(fileName);
+                if (Files.notExists(target)) {
+                    try {
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return fileName;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
 
-        //upload to server
-        Files.copy(file.getInputStream(), Paths.get(filePath));
+    @Override
+    public void releaseImage(String fileName) {
+        if (fileName != null) {
+            storedImageRepository.release(fileName);
+        }
+    }
+
+    // Kept only when it is a plain extension, the name must stay servable from the image directory
+    private static String extension(String originalFileName) {
+        int dot = originalFileName == null ? -1 : originalFileName.lastIndexOf('.');
+        String extension = dot < 0 ? "" : originalFileName.substring(dot).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
 
-        return fileName;
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,7 @@
+package com.ecommerce.sb_ecom.service;
+
+public interface ImageVariantService {
+
+    // Queues variant generation for a stored product image and returns without waiting for it
+    void generateVariants(Long productId, String image);
+}
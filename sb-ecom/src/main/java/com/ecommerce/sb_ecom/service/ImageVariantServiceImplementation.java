@@ -0,0 +1,146 @@
+package com.ecommerce.sb_ecom.service;
+
+import com.ecommerce.sb_ecom.config.AppConstants;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.image.ImageVariant;
+import com.ecommerce.sb_ecom.image.ImageVariantGenerator;
+import com.ecommerce.sb_ecom.image.PendingImage;
+import com.ecommerce.sb_ecom.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates image variants on a small fixed pool with a bounded queue, so uploads return
+ * as soon as the original is stored and a burst of uploads cannot pile up decoded images.
+ * Uploads that find the queue full, and jobs lost to a restart, are picked up by the
+ * sweep over products without variants that runs at startup.
+ */
+@Service
+public class ImageVariantServiceImplementation implements ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantServiceImplementation.class);
+
+    @Autowired
+    private ImageVariantGenerator imageVariantGenerator;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${project.image}")
+    private String path;
+
+    @Value("${catalog.images.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${catalog.images.queue-capacity:200}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.prestartAllCoreThreads();
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void generateVariants(Long productId, String image) {
+        try {
+            executor.execute(() -> process(productId, image));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Image variant queue is full, variants of product {} are left to the next startup sweep", productId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(this::sweep, "image-variants-sweep");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void sweep() {
+        List<PendingImage> pending = productRepository.findImagesWithoutVariants(AppConstants.DEFAULT_IMAGE);
+        if (pending.isEmpty()) {
+            return;
+        }
+        logger.info("Generating missing image variants for {} products", pending.size());
+        try {
+            for (PendingImage image : pending) {
+                // Waits for room instead of being rejected; the core threads are already running, so a queued task is picked up
+                executor.getQueue().put(() -> process(image.getProductId(), image.getImage()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(Long productId, String image) {
+        long start = System.currentTimeMillis();
+        Map<ImageVariant, String> variants = variantsOf(productId, image);
+        if (variants == null) {
+            return;
+        }
+
+        // Only recorded if the product still shows this image, a newer upload has its own job
+        Integer updated = transactionTemplate.execute(status -> productRepository.updateImageVariants(productId, image,
+                variants.get(ImageVariant.THUMBNAIL), variants.get(ImageVariant.LISTING), variants.get(ImageVariant.DETAIL)));
+        if (updated != null && updated > 0) {
+            productRepository.findById(productId).ifPresent(product -> eventPublisher.publishEvent(
+                    new ProductChangedEvent(ProductChangedEvent.ChangeType.IMAGE_UPDATED, product, null, null)));
+            logger.debug("Generated image variants for product {} in {} ms", productId, System.currentTimeMillis() - start);
+        }
+    }
+
+    private Map<ImageVariant, String> variantsOf(Long productId, String image) {
+        Path original = Paths.get(path).resolve(image);
+        // Identical uploads share one stored file, so its variants may already be on disk
+        Map<ImageVariant, String> existing = imageVariantGenerator.existing(original);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            return imageVariantGenerator.generate(original);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not generate variants of image {} for product {}: {}", image, productId, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,20 +1,27 @@
 package com.ecommerce.sb_ecom.service;
 
 
+import com.ecommerce.sb_ecom.cart.WriteBehindCartStore;
+import com.ecommerce.sb_ecom.event.CartChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductsOrderedEvent;
 import com.ecommerce.sb_ecom.exceptions.APIException;
 import com.ecommerce.sb_ecom.exceptions.ResourceNotFoundException;
+import com.ecommerce.sb_ecom.mapper.OrderMapper;
 import com.ecommerce.sb_ecom.model.*;
 import com.ecommerce.sb_ecom.repositories.*;
 import com.ecommerce.sb_ecom.payload.OrderDTO;
-import com.ecommerce.sb_ecom.payload.OrderItemDTO;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderServiceImplementation implements OrderService {
@@ -35,18 +42,20 @@ public class OrderServiceImplementation implements OrderService {
     PaymentRepository paymentRepository;
 
     @Autowired
-    CartService cartService;
+    OrderMapper orderMapper;
 
     @Autowired
-    ModelMapper modelMapper;
+    ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    ProductRepository productRepository;
+    ObjectProvider<WriteBehindCartStore> writeBehindCartStore;
 
     @Override
     @Transactional
     public OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod, String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage) {
-        Cart cart = cartRepository.findCartByEmail(emailId);
+        // With the write-behind cart engine the latest cart may only be in memory yet
+        writeBehindCartStore.ifAvailable(store -> store.prepareCheckout(emailId));
+        Cart cart = cartRepository.findCartWithItemsByEmail(emailId);
         if (cart == null) {
             throw new ResourceNotFoundException("Cart", "email", emailId);
         }
@@ -86,22 +95,28 @@ public class OrderServiceImplementation implements OrderService {
 
         orderItems = orderItemRepository.saveAll(orderItems);
 
+        Map<Long, Integer> orderedQuantities = new HashMap<>();
         cart.getCartItems().forEach(item -> {
             int quantity = item.getQuantity();
             Product product = item.getProduct();
+            orderedQuantities.merge(product.getProductId(), quantity, Integer::sum);
 
-            // Reduce stock quantity
+            // Reduce stock quantity, flushed with the rest of the transaction as one JDBC batch
             product.setQuantity(product.getQuantity() - quantity);
+            // Stock drives the in-stock facet and the listed quantity
+            eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.ChangeType.UPDATED, product,
+                    product.getProductName(), product.getDescription()));
+        });
 
-            // Save product back to the database
-            productRepository.save(product);
+        eventPublisher.publishEvent(new ProductsOrderedEvent(orderedQuantities));
 
-            // Remove items from cart
-            cartService.deleteProductFromCart(cart.getCartId(), item.getProduct().getProductId());
-        });
+        // Empty the cart; orphan removal deletes the lines in a batch instead of one lookup and delete per line
+        cart.getCartItems().clear();
+        cart.setTotalPrice(0.0);
+        eventPublisher.publishEvent(new CartChangedEvent(cart.getCartId()));
 
-        OrderDTO orderDTO = modelMapper.map(savedOrder, OrderDTO.class);
-        orderItems.forEach(item -> orderDTO.getOrderItems().add(modelMapper.map(item, OrderItemDTO.class)));
+        OrderDTO orderDTO = orderMapper.toDTO(savedOrder);
+        orderItems.forEach(item -> orderDTO.getOrderItems().add(orderMapper.toDTO(item)));
 
         orderDTO.setAddressId(addressId);
 
@@ -0,0 +1,12 @@
+package com.ecommerce.sb_ecom.service;
+
+import com.ecommerce.sb_ecom.exporter.ExportOutput;
+import com.ecommerce.sb_ecom.exporter.ProductExportFormat;
+
+import java.io.IOException;
+import java.time.Instant;
+
+public interface ProductExportService {
+
+    long exportProducts(Long categoryId, Instant updatedSince, ProductExportFormat format, ExportOutput output) throws IOException;
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.sb_ecom.service;
+
+import com.ecommerce.sb_ecom.exceptions.ResourceNotFoundException;
+import com.ecommerce.sb_ecom.exporter.ExportOutput;
+import com.ecommerce.sb_ecom.exporter.ProductExportFormat;
+import com.ecommerce.sb_ecom.exporter.ProductExportRow;
+import com.ecommerce.sb_ecom.exporter.ProductRowWriter;
+import com.ecommerce.sb_ecom.exporter.ProductRowWriters;
+import com.ecommerce.sb_ecom.repositories.CategoryRepository;
+import com.ecommerce.sb_ecom.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Catalog export. Rows come off a forward-only cursor inside one read-only transaction
+ * and are written out as they arrive, so heap use does not grow with the catalog.
+ */
+@Service
+public class ProductExportServiceImplementation implements ProductExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportServiceImplementation.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${catalog.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Override
+    public long exportProducts(Long categoryId, Instant updatedSince, ProductExportFormat format, ExportOutput output) throws IOException {
+        if (categoryId != null && !categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category", "categoryId", categoryId);
+        }
+
+        long start = System.currentTimeMillis();
+        // PostgreSQL only honours the fetch size with auto-commit off, i.e. inside a transaction
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Long exported;
+        try (OutputStream stream = output.open()) {
+            ProductRowWriter writer = ProductRowWriters.open(format, stream, objectMapper);
+            exported = readOnly.execute(status -> {
+                long count = 0;
+                try (Stream<ProductExportRow> rows = productRepository.streamExportRows(categoryId, updatedSince, fetchSize)) {
+                    Iterator<ProductExportRow> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        writer.write(iterator.next());
+                        count++;
+                    }
+                    writer.finish();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("Exported {} products as {} in {} ms", exported, format, System.currentTimeMillis() - start);
+        return exported;
+    }
+}
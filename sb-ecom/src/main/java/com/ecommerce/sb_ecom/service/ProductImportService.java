@@ -0,0 +1,11 @@
+package com.ecommerce.sb_ecom.service;
+
+import com.ecommerce.sb_ecom.importer.ProductImportFormat;
+import com.ecommerce.sb_ecom.payload.ProductImportResponse;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    ProductImportResponse importProducts(Long categoryId, InputStream input, ProductImportFormat format);
+}
@@ -0,0 +1,216 @@
+package com.ecommerce.sb_ecom.service;
+
+import com.ecommerce.sb_ecom.config.AppConstants;
+import com.ecommerce.sb_ecom.event.ProductsImportedEvent;
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import com.ecommerce.sb_ecom.exceptions.ResourceNotFoundException;
+import com.ecommerce.sb_ecom.importer.ProductImportFormat;
+import com.ecommerce.sb_ecom.importer.ProductImportRow;
+import com.ecommerce.sb_ecom.importer.ProductRowReader;
+import com.ecommerce.sb_ecom.importer.ProductRowReaders;
+import com.ecommerce.sb_ecom.mapper.ProductMapper;
+import com.ecommerce.sb_ecom.model.Category;
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.ProductDTO;
+import com.ecommerce.sb_ecom.payload.ProductImportError;
+import com.ecommerce.sb_ecom.payload.ProductImportResponse;
+import com.ecommerce.sb_ecom.repositories.CategoryRepository;
+import com.ecommerce.sb_ecom.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import. Rows are read off the upload as they arrive and written in
+ * chunks, each in its own transaction: duplicates are found with one indexed lookup
+ * per chunk, inserts go out as JDBC batches and ids come from the pooled product
+ * sequence. A bad row is reported and skipped, it never fails the rest of the file.
+ */
+@Service
+public class ProductImportServiceImplementation implements ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImplementation.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${catalog.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${catalog.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Override
+    public ProductImportResponse importProducts(Long categoryId, InputStream input, ProductImportFormat format) {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category", "categoryId", categoryId);
+        }
+
+        long start = System.currentTimeMillis();
+        ProductImportResponse response = new ProductImportResponse();
+        // Names accepted so far, catches duplicates within the upload itself
+        Set<String> importedNames = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            ProductRowReader rows = ProductRowReaders.open(format, reader, objectMapper);
+            List<ProductImportRow> chunk = new ArrayList<>(chunkSize);
+            ProductImportRow row;
+            while ((row = rows.next()) != null) {
+                if (row.getError() != null) {
+                    reject(response, row, row.getError());
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(categoryId, chunk, importedNames, response);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(categoryId, chunk, importedNames, response);
+            }
+        } catch (IOException e) {
+            throw new APIException("Could not read the import file: " + e.getMessage());
+        }
+        // Parse errors are reported as they are read, the rest once their chunk is written
+        response.getErrors().sort(Comparator.comparing(ProductImportError::getLine));
+
+        logger.info("Imported {} products into category {} in {} ms, {} rows rejected",
+                response.getImported(), categoryId, System.currentTimeMillis() - start, response.getFailed());
+        return response;
+    }
+
+    private void importChunk(Long categoryId, List<ProductImportRow> chunk, Set<String> importedNames,
+                             ProductImportResponse response) {
+        Set<String> names = chunk.stream()
+                .map(row -> row.getProduct().getProductName())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<ProductImportRow, String> rejected = new HashMap<>();
+        Set<String> acceptedNames = new HashSet<>();
+        List<Product> products = new ArrayList<>(chunk.size());
+        String chunkError = null;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Category category = categoryRepository.getReferenceById(categoryId);
+                Set<String> existingNames = new HashSet<>(productRepository.findExistingProductNames(categoryId, names));
+
+                for (ProductImportRow row : chunk) {
+                    Product product = toProduct(row.getProduct(), category);
+                    String error = validate(product);
+                    if (error == null && (existingNames.contains(product.getProductName())
+                            || importedNames.contains(product.getProductName())
+                            || !acceptedNames.add(product.getProductName()))) {
+                        error = "Product already exists!!";
+                    }
+                    if (error != null) {
+                        rejected.put(row, error);
+                    } else {
+                        products.add(product);
+                    }
+                }
+
+                productRepository.saveAll(products);
+                productRepository.flush();
+                categoryRepository.adjustProductCount(categoryId, products.size());
+                // Keep the persistence context from growing with the upload
+                entityManager.clear();
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Product import chunk for category {} failed: {}", categoryId, e.getMessage());
+            chunkError = "Could not be saved: " + e.getMostSpecificCause().getMessage();
+        }
+
+        for (ProductImportRow row : chunk) {
+            String error = rejected.getOrDefault(row, chunkError);
+            if (error != null) {
+                reject(response, row, error);
+            }
+        }
+        if (chunkError != null) {
+            return;
+        }
+
+        importedNames.addAll(acceptedNames);
+        response.setImported(response.getImported() + products.size());
+        if (!products.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsImportedEvent(categoryId, products));
+        }
+    }
+
+    private Product toProduct(ProductDTO productDTO, Category category) {
+        Product product = productMapper.toEntity(productDTO);
+        product.setProductId(null);
+        product.setImage(AppConstants.DEFAULT_IMAGE);
+        product.setCategory(category);
+        double specialPrice = product.getPrice() - (product.getDiscount() * 0.01) * product.getPrice();
+        product.setSpecialPrice(specialPrice);
+        return product;
+    }
+
+    private String validate(Product product) {
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (product.getQuantity() != null && product.getQuantity() < 0) {
+            return "quantity must not be negative";
+        }
+        if (product.getPrice() < 0) {
+            return "price must not be negative";
+        }
+        if (product.getDiscount() < 0 || product.getDiscount() > 100) {
+            return "discount must be between 0 and 100";
+        }
+        return null;
+    }
+
+    private void reject(ProductImportResponse response, ProductImportRow row, String message) {
+        response.setFailed(response.getFailed() + 1);
+        if (response.getErrors().size() < maxReportedErrors) {
+            String productName = row.getProduct() == null ? null : row.getProduct().getProductName();
+            response.getErrors().add(new ProductImportError(row.getLine(), productName, message));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.sb_ecom.service;
+
+import com.ecommerce.sb_ecom.payload.ProductRepriceRequest;
+import com.ecommerce.sb_ecom.payload.ProductRepriceResponse;
+
+public interface ProductRepricingService {
+
+    ProductRepriceResponse repriceProducts(ProductRepriceRequest request);
+}
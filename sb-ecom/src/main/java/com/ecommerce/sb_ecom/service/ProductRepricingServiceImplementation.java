@@ -0,0 +1,137 @@
+package com.ecommerce.sb_ecom.service;
+
+import com.ecommerce.sb_ecom.event.ProductsRepricedEvent;
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import com.ecommerce.sb_ecom.exceptions.ResourceNotFoundException;
+import com.ecommerce.sb_ecom.payload.ProductRepriceRequest;
+import com.ecommerce.sb_ecom.payload.ProductRepriceResponse;
+import com.ecommerce.sb_ecom.repositories.CartItemRepository;
+import com.ecommerce.sb_ecom.repositories.CartRepository;
+import com.ecommerce.sb_ecom.repositories.CategoryRepository;
+import com.ecommerce.sb_ecom.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Bulk price and discount changes. Products are repriced in id chunks, each chunk in
+ * one set-based statement and transaction. The carts holding a chunk are then walked
+ * in id order, one chunk of carts per transaction: their totals first, then their
+ * lines. Nothing is loaded into the persistence context, and no transaction locks
+ * more than a chunk of carts however popular the products are.
+ */
+@Service
+public class ProductRepricingServiceImplementation implements ProductRepricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductRepricingServiceImplementation.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.reprice.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${catalog.reprice.cart-chunk-size:500}")
+    private int cartChunkSize;
+
+    @Override
+    public ProductRepriceResponse repriceProducts(ProductRepriceRequest request) {
+        validate(request);
+        double priceFactor = request.getPriceChangePercent() == null ? 1.0 : 1.0 + request.getPriceChangePercent() / 100.0;
+
+        long start = System.currentTimeMillis();
+        ProductRepriceResponse response = new ProductRepriceResponse();
+        if (request.getProductIds() != null && !request.getProductIds().isEmpty()) {
+            List<Long> productIds = request.getProductIds().stream().distinct().toList();
+            for (int from = 0; from < productIds.size(); from += chunkSize) {
+                List<Long> chunk = productIds.subList(from, Math.min(from + chunkSize, productIds.size()));
+                repriceChunk(chunk, priceFactor, request.getDiscount(), response);
+            }
+        } else {
+            Long categoryId = request.getCategoryId();
+            if (!categoryRepository.existsById(categoryId)) {
+                throw new ResourceNotFoundException("Category", "categoryId", categoryId);
+            }
+            // Walks the category by id, so a chunk already repriced is never selected again
+            long lastProductId = 0;
+            List<Long> chunk;
+            do {
+                chunk = productRepository.findProductIdsByCategoryAfter(categoryId, lastProductId, Limit.of(chunkSize));
+                if (!chunk.isEmpty()) {
+                    repriceChunk(chunk, priceFactor, request.getDiscount(), response);
+                    lastProductId = chunk.get(chunk.size() - 1);
+                }
+            } while (chunk.size() == chunkSize);
+        }
+
+        logger.info("Repriced {} products, {} cart items and {} carts in {} ms", response.getProductsUpdated(),
+                response.getCartItemsUpdated(), response.getCartsUpdated(), System.currentTimeMillis() - start);
+        return response;
+    }
+
+    private void repriceChunk(List<Long> productIds, double priceFactor, Double discount, ProductRepriceResponse response) {
+        Integer products = transactionTemplate.execute(status ->
+                productRepository.repriceProducts(productIds, priceFactor, discount));
+        response.setProductsUpdated(response.getProductsUpdated() + (products == null ? 0 : products));
+
+        // Only carts with a stale line are selected, so a chunk already repriced is never selected again
+        long lastCartId = 0;
+        List<Long> cartIds;
+        do {
+            cartIds = cartItemRepository.findCartIdsWithStalePrices(productIds, lastCartId, Limit.of(cartChunkSize));
+            if (!cartIds.isEmpty()) {
+                repriceCarts(productIds, cartIds, response);
+                lastCartId = cartIds.get(cartIds.size() - 1);
+            }
+        } while (cartIds.size() == cartChunkSize);
+        eventPublisher.publishEvent(new ProductsRepricedEvent(List.copyOf(productIds)));
+    }
+
+    private void repriceCarts(List<Long> productIds, List<Long> cartIds, ProductRepriceResponse response) {
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.lockPrices(productIds);
+            response.setCartsUpdated(response.getCartsUpdated()
+                    + cartRepository.adjustTotalsForRepricedProductsInCarts(productIds, cartIds));
+            response.setCartItemsUpdated(response.getCartItemsUpdated()
+                    + cartItemRepository.repriceCartItemsInCarts(productIds, cartIds));
+        });
+    }
+
+    private void validate(ProductRepriceRequest request) {
+        boolean byIds = request.getProductIds() != null && !request.getProductIds().isEmpty();
+        if (byIds == (request.getCategoryId() != null)) {
+            throw new APIException("Select the products to reprice with either productIds or categoryId");
+        }
+        if (request.getPriceChangePercent() == null && request.getDiscount() == null) {
+            throw new APIException("Nothing to change, set priceChangePercent and/or discount");
+        }
+        if (request.getPriceChangePercent() != null && request.getPriceChangePercent() <= -100) {
+            throw new APIException("priceChangePercent must be greater than -100");
+        }
+        if (request.getDiscount() != null && (request.getDiscount() < 0 || request.getDiscount() > 100)) {
+            throw new APIException("discount must be between 0 and 100");
+        }
+    }
+}
@@ -1,19 +1,30 @@
 package com.ecommerce.sb_ecom.service;
 
+import com.ecommerce.sb_ecom.payload.ProductCursorResponse;
 import com.ecommerce.sb_ecom.payload.ProductDTO;
+import com.ecommerce.sb_ecom.payload.ProductFacetResponse;
 import com.ecommerce.sb_ecom.payload.ProductResponse;
+import com.ecommerce.sb_ecom.payload.SuggestionDTO;
+import com.ecommerce.sb_ecom.search.FacetFilter;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 
 public interface ProductService {
     ProductDTO addProduct(Long categoryId,ProductDTO product);
 
-    ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+    ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals);
 
-    ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+    ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals);
 
-    ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+    ProductCursorResponse getProductsByCursor(Long categoryId, String cursor, Integer pageSize, String sortBy, String sortOrder);
+
+    ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals);
+
+    ProductFacetResponse filterProducts(FacetFilter filter, Integer pageNumber, Integer pageSize);
+
+    List<SuggestionDTO> suggest(String query, Integer limit);
 
     ProductDTO updateProduct(Long productId,ProductDTO product);
 
@@ -1,25 +1,48 @@
 package com.ecommerce.sb_ecom.service;
 
+import com.ecommerce.sb_ecom.cache.CatalogCacheKey;
+import com.ecommerce.sb_ecom.config.AppConstants;
+import com.ecommerce.sb_ecom.cache.ProductCatalogCache;
+import com.ecommerce.sb_ecom.event.ProductChangedEvent;
+import com.ecommerce.sb_ecom.event.ProductPriceChangedEvent;
 import com.ecommerce.sb_ecom.exceptions.APIException;
 import com.ecommerce.sb_ecom.exceptions.ResourceNotFoundException;
+import com.ecommerce.sb_ecom.mapper.ProductMapper;
 import com.ecommerce.sb_ecom.model.Category;
 import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.ProductCursorResponse;
 import com.ecommerce.sb_ecom.payload.ProductDTO;
+import com.ecommerce.sb_ecom.payload.ProductFacetResponse;
 import com.ecommerce.sb_ecom.payload.ProductResponse;
+import com.ecommerce.sb_ecom.payload.SuggestionDTO;
 import com.ecommerce.sb_ecom.repositories.CategoryRepository;
 import com.ecommerce.sb_ecom.repositories.ProductRepository;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.sb_ecom.search.FacetFilter;
+import com.ecommerce.sb_ecom.search.FacetSearchPage;
+import com.ecommerce.sb_ecom.search.ProductFacetIndex;
+import com.ecommerce.sb_ecom.search.ProductSearchIndex;
+import com.ecommerce.sb_ecom.search.ProductSearchPage;
+import com.ecommerce.sb_ecom.search.ProductSuggestIndex;
+import com.ecommerce.sb_ecom.util.KeysetCursor;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImplementation implements ProductService {
@@ -31,38 +54,63 @@ public class ProductServiceImplementation implements ProductService {
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
 
     @Autowired
     private  FileService fileService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Value("${catalog.suggest.max-results:25}")
+    private int maxSuggestions;
+
+    @Value("${catalog.cursor.max-page-size:500}")
+    private int maxCursorPageSize;
+
+    @Autowired
+    private CatalogCountService catalogCountService;
+
     @Value("${project.image}")
     private String path;
 
     @Override
+    @Transactional
     public ProductDTO addProduct(Long categoryId, ProductDTO productDTO) {
 
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Category", "categoryId", categoryId));
 
-        boolean isProductNotPresent = true;
-        List<Product> products = category.getProducts();
-        for(Product value:products){
-            if(value.getProductName().equals(productDTO.getProductName())){
-                isProductNotPresent = false;
-                break;
-            }
-
-        }
+        boolean isProductNotPresent = !productRepository.existsByCategoryAndProductName(category, productDTO.getProductName());
         if(isProductNotPresent) {
-            Product product = modelMapper.map(productDTO, Product.class);
-            product.setImage("default.png");
+            Product product = productMapper.toEntity(productDTO);
+            product.setImage(AppConstants.DEFAULT_IMAGE);
             product.setCategory(category);
             double specialPrice = product.getPrice() - (product.getDiscount() * 0.01) * product.getPrice();
             product.setSpecialPrice(specialPrice);
             Product savedProduct = productRepository.save(product);
-            return modelMapper.map(savedProduct, ProductDTO.class);
+            categoryRepository.adjustProductCount(categoryId, 1);
+            eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.ChangeType.CREATED, savedProduct, null, null));
+            return productMapper.toDTO(savedProduct);
         }
         else{
             throw new APIException("Product already exists!!");
@@ -70,31 +118,30 @@ public class ProductServiceImplementation implements ProductService {
     }
 
     @Override
-    public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+    public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
+        return productCatalogCache.get(CatalogCacheKey.all(pageNumber, pageSize, sortBy, sortOrder, withTotals),
+                () -> loadAllProducts(pageNumber, pageSize, sortBy, sortOrder, withTotals));
+    }
+
+    private ProductResponse loadAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
 
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")?
                 Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
 
         Pageable pageDetails = PageRequest.of(pageNumber,pageSize,sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findAll(pageDetails);
-
-        List<Product> products = pageProducts.getContent();
-        List<ProductDTO> productDTOS = products.stream()
-                .map((product -> modelMapper.map(product, ProductDTO.class)))
-                .toList();
+        Slice<Product> sliceProducts = productRepository.findSliceBy(pageDetails);
 
-        ProductResponse productResponse = new ProductResponse();
-        productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProducts.getNumber());
-       productResponse.setPageSize(pageProducts.getSize());
-       productResponse.setTotalElements(pageProducts.getTotalElements());
-       productResponse.setTotalPages(pageProducts.getTotalPages());
-       productResponse.setLastPage(pageProducts.isLast());
-        return productResponse;
+        Long totalElements = withTotals ? catalogCountService.countAllProducts() : null;
+        return buildProductResponse(sliceProducts, totalElements);
     }
 
     @Override
-    public ProductResponse searchByCategory(Long categoryId,Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+    public ProductResponse searchByCategory(Long categoryId,Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
+        return productCatalogCache.get(CatalogCacheKey.category(categoryId, pageNumber, pageSize, sortBy, sortOrder, withTotals),
+                () -> loadByCategory(categoryId, pageNumber, pageSize, sortBy, sortOrder, withTotals));
+    }
+
+    private ProductResponse loadByCategory(Long categoryId,Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Category", "categoryId", categoryId));
@@ -102,60 +149,167 @@ public class ProductServiceImplementation implements ProductService {
                 Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
 
         Pageable pageDetails = PageRequest.of(pageNumber,pageSize,sortByAndOrder);
-        Page<Product> pageProducts =  productRepository.findByCategoryOrderByPriceAsc(category,pageDetails);
+        Slice<Product> sliceProducts =  productRepository.findSliceByCategoryOrderByPriceAsc(category,pageDetails);
 
-        List<Product> products = pageProducts.getContent();
-        List<ProductDTO> productDTOS = products.stream()
-                .map((product -> modelMapper.map(product, ProductDTO.class)))
-                .toList();
-        if(products.isEmpty()){
+        if(sliceProducts.getContent().isEmpty()){
             throw new APIException(category.getCategoryName()+" category does not have any products");
         }
-        ProductResponse productResponse = new ProductResponse();
-        productResponse.setContent(productDTOS);
+        Long totalElements = withTotals ? catalogCountService.countProductsByCategory(category) : null;
+        return buildProductResponse(sliceProducts, totalElements);
+    }
 
+    private ProductResponse buildProductResponse(Slice<Product> sliceProducts, Long totalElements) {
+        List<ProductDTO> productDTOS = sliceProducts.getContent().stream()
+                .map((product -> productMapper.toDTO(product)))
+                .toList();
+
+        ProductResponse productResponse = new ProductResponse();
         productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProducts.getNumber());
-        productResponse.setPageSize(pageProducts.getSize());
-        productResponse.setTotalElements(pageProducts.getTotalElements());
-        productResponse.setTotalPages(pageProducts.getTotalPages());
-        productResponse.setLastPage(pageProducts.isLast());
+        productResponse.setPageNumber(sliceProducts.getNumber());
+        productResponse.setPageSize(sliceProducts.getSize());
+        if (totalElements != null) {
+            // Cached totals may lag a little; never report fewer rows than this page proves exist
+            long seen = sliceProducts.getPageable().getOffset() + sliceProducts.getNumberOfElements();
+            long total = sliceProducts.isLast() ? seen : Math.max(totalElements, seen + 1);
+            productResponse.setTotalElements(total);
+            productResponse.setTotalPages((int) ((total + sliceProducts.getSize() - 1) / sliceProducts.getSize()));
+        }
+        productResponse.setLastPage(sliceProducts.isLast());
         return productResponse;
     }
 
     @Override
-    public ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+    public ProductCursorResponse getProductsByCursor(Long categoryId, String cursor, Integer pageSize, String sortBy, String sortOrder) {
+        if (pageSize < 1 || pageSize > maxCursorPageSize) {
+            throw new APIException("Page size must be between 1 and " + maxCursorPageSize);
+        }
+        if (categoryId != null && !categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category", "categoryId", categoryId);
+        }
+
+        // A cursor carries the ordering it was issued for, so later pages cannot change it midway
+        KeysetCursor position = cursor == null ? null : KeysetCursor.decode(cursor);
+        if (position != null) {
+            sortBy = position.getSortBy();
+            sortOrder = position.getSortOrder();
+        }
+        if (!AppConstants.PRODUCT_SORT_FIELDS.contains(sortBy)) {
+            throw new APIException("Products cannot be sorted by " + sortBy);
+        }
+        boolean ascending = sortOrder.equalsIgnoreCase("asc");
+
+        // One extra row tells us whether another page exists without a count query
+        List<Product> products = productRepository.findProductsAfter(categoryId, sortBy, ascending,
+                position == null ? null : position.getLastKey(),
+                position == null ? null : position.getLastId(),
+                pageSize + 1);
+        boolean lastPage = products.size() <= pageSize;
+        if (!lastPage) {
+            products = products.subList(0, pageSize);
+        }
+
+        String next = null;
+        if (!lastPage) {
+            Product last = products.get(products.size() - 1);
+            next = new KeysetCursor(sortBy, sortOrder, last.getProductId(), productRepository.sortKeyOf(last, sortBy)).encode();
+        }
+
+        List<ProductDTO> productDTOS = products.stream()
+                .map(product -> productMapper.toDTO(product))
+                .toList();
+        return new ProductCursorResponse(productDTOS, pageSize, next, lastPage);
+    }
+
+    @Override
+    public ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
+        return productCatalogCache.get(CatalogCacheKey.keyword(keyword, pageNumber, pageSize, sortBy, sortOrder, withTotals),
+                () -> loadByKeyword(keyword, pageNumber, pageSize, sortBy, sortOrder, withTotals));
+    }
+
+    private ProductResponse loadByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
+        if (productSearchIndex.isReady()) {
+            return searchIndex(keyword, pageNumber, pageSize, sortBy, sortOrder, withTotals);
+        }
+
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")?
                 Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
 
         Pageable pageDetails = PageRequest.of(pageNumber,pageSize,sortByAndOrder);
-        Page<Product> pageProducts =  productRepository.findByProductNameLikeIgnoreCase("%" + keyword + "%",pageDetails);
+        Slice<Product> sliceProducts =  productRepository.findSliceByProductNameLikeIgnoreCase("%" + keyword + "%",pageDetails);
 
-        List<Product> products = pageProducts.getContent();
-        List<ProductDTO> productDTOS = products.stream()
-                .map((product -> modelMapper.map(product, ProductDTO.class)))
-                .toList();
-        if(products.size()==0){
+        if(sliceProducts.getContent().isEmpty()){
+            throw new APIException("Products not found with keyword: "+keyword);
+        }
+        Long totalElements = withTotals ? catalogCountService.countProductsByKeyword(keyword) : null;
+        return buildProductResponse(sliceProducts, totalElements);
+    }
+
+    private ProductResponse searchIndex(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Boolean withTotals) {
+        ProductSearchPage page = productSearchIndex.search(keyword, pageNumber, pageSize, sortBy, sortOrder);
+        if (page.getTotalElements() == 0) {
             throw new APIException("Products not found with keyword: "+keyword);
         }
 
+        List<ProductDTO> productDTOS = findProductsInOrder(page.getProductIds());
+
+        int totalPages = (int) ((page.getTotalElements() + pageSize - 1) / pageSize);
         ProductResponse productResponse = new ProductResponse();
         productResponse.setContent(productDTOS);
-        productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProducts.getNumber());
-        productResponse.setPageSize(pageProducts.getSize());
-        productResponse.setTotalElements(pageProducts.getTotalElements());
-        productResponse.setTotalPages(pageProducts.getTotalPages());
-        productResponse.setLastPage(pageProducts.isLast());
+        productResponse.setPageNumber(pageNumber);
+        productResponse.setPageSize(pageSize);
+        if (withTotals) {
+            productResponse.setTotalElements(page.getTotalElements());
+            productResponse.setTotalPages(totalPages);
+        }
+        productResponse.setLastPage(pageNumber + 1 >= totalPages);
         return productResponse;
     }
 
+    // findAllById gives no ordering guarantee, so restore the order the index returned
+    private List<ProductDTO> findProductsInOrder(List<Long> productIds) {
+        Map<Long, Product> productsById = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        return productIds.stream()
+                .map(productsById::get)
+                .filter(product -> product != null)
+                .map(product -> productMapper.toDTO(product))
+                .toList();
+    }
+
+    @Override
+    public ProductFacetResponse filterProducts(FacetFilter filter, Integer pageNumber, Integer pageSize) {
+        FacetSearchPage page = productFacetIndex.search(filter, pageNumber, pageSize);
+
+        int totalPages = (int) ((page.getTotalElements() + pageSize - 1) / pageSize);
+        ProductFacetResponse facetResponse = new ProductFacetResponse();
+        facetResponse.setContent(findProductsInOrder(page.getProductIds()));
+        facetResponse.setPageNumber(pageNumber);
+        facetResponse.setPageSize(pageSize);
+        facetResponse.setTotalElements(page.getTotalElements());
+        facetResponse.setTotalPages(totalPages);
+        facetResponse.setLastPage(pageNumber + 1 >= totalPages);
+        facetResponse.setFacets(page.getFacets());
+        return facetResponse;
+    }
+
+    // Typeahead fires on every keystroke, so no match is an empty list rather than an error
+    @Override
+    public List<SuggestionDTO> suggest(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return productSuggestIndex.suggest(query, Math.min(Math.max(limit, 1), maxSuggestions));
+    }
 
     @Override
     public ProductDTO updateProduct(Long productId, ProductDTO productDTO) {
         Product productDB = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-        Product product = modelMapper.map(productDTO,Product.class);
+        Product product = productMapper.toEntity(productDTO);
+        String previousProductName = productDB.getProductName();
+        String previousDescription = productDB.getDescription();
+        boolean priceChanged = !Objects.equals(productDB.getSpecialPrice(), product.getSpecialPrice())
+                || !Objects.equals(productDB.getDiscount(), product.getDiscount());
 
         productDB.setProductName(product.getProductName());
 //        productDB.setImage(product.getImage());
@@ -166,36 +320,68 @@ public class ProductServiceImplementation implements ProductService {
         productDB.setSpecialPrice(product.getSpecialPrice());
 
         Product updatedProduct = productRepository.save(productDB);
-        return modelMapper.map(updatedProduct, ProductDTO.class);
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.ChangeType.UPDATED, updatedProduct,
+                previousProductName, previousDescription));
+        // The carts holding the product are repriced in the background by CartRepriceWorker
+        if (priceChanged) {
+            eventPublisher.publishEvent(new ProductPriceChangedEvent(productId));
+        }
+        return productMapper.toDTO(updatedProduct);
     }
 
     @Override
+    @Transactional
     public ProductDTO deleProduct(Long productId) {
 
         Product productDB = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
         productRepository.delete(productDB);
-        return modelMapper.map(productDB, ProductDTO.class);
+        categoryRepository.adjustProductCount(productDB.getCategory().getCategoryId(), -1);
+        fileService.releaseImage(productDB.getImage());
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.ChangeType.DELETED, productDB, null, null));
+        return productMapper.toDTO(productDB);
     }
 
     @Override
     public ProductDTO updateProductImage(Long productId, MultipartFile image) throws IOException {
-      //get product from Database
-Product productFromDb = productRepository.findById(productId)
-        .orElseThrow(()->new ResourceNotFoundException("Product","productId",productId));
-
-        //upload image to server
-        //get the file name of uploaded image
-        String fileName = fileService.uploadImage(path,image);
-
-        //updating the new file name to the product
-        productFromDb.setImage(fileName);
-
-        //save updated product
-            Product updatedProduct  = productRepository.save(productFromDb);
+        //the new image is referenced and the previous one released in the same transaction as the product update
+        Product updatedProduct;
+        try {
+            updatedProduct = transactionTemplate.execute(status -> {
+                //get product from Database
+                Product productFromDb = productRepository.findById(productId)
+                        .orElseThrow(()->new ResourceNotFoundException("Product","productId",productId));
+
+                //upload image to server
+                //get the file name of uploaded image, identical uploads share one file
+                String fileName;
+                try {
+                    fileName = fileService.uploadImage(path,image);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                //updating the new file name to the product, the variants of the previous image no longer apply
+                String previousImage = productFromDb.getImage();
+                productFromDb.setImage(fileName);
+                productFromDb.setThumbnailImage(null);
+                productFromDb.setListingImage(null);
+                productFromDb.setDetailImage(null);
+
+                //save updated product
+                Product savedProduct = productRepository.save(productFromDb);
+                fileService.releaseImage(previousImage);
+                return savedProduct;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.ChangeType.IMAGE_UPDATED, updatedProduct, null, null));
+        //resized variants are generated in the background and recorded on the product when ready
+        imageVariantService.generateVariants(productId, updatedProduct.getImage());
         //return DTO after mapping product to DTO
-        return modelMapper.map(updatedProduct,ProductDTO.class);
+        return productMapper.toDTO(updatedProduct);
     }
 
 }
@@ -0,0 +1,210 @@
+package com.ecommerce.sb_ecom.service;
+
+import com.ecommerce.sb_ecom.cart.ActiveCartLine;
+import com.ecommerce.sb_ecom.cart.CartListing;
+import com.ecommerce.sb_ecom.cart.CartProductSnapshots;
+import com.ecommerce.sb_ecom.cart.CartSnapshot;
+import com.ecommerce.sb_ecom.cart.WriteBehindCartStore;
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import com.ecommerce.sb_ecom.exceptions.ResourceNotFoundException;
+import com.ecommerce.sb_ecom.mapper.CartMapper;
+import com.ecommerce.sb_ecom.model.Cart;
+import com.ecommerce.sb_ecom.model.CartItem;
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.CartCursorResponse;
+import com.ecommerce.sb_ecom.payload.CartDTO;
+import com.ecommerce.sb_ecom.payload.CartItemDTO;
+import com.ecommerce.sb_ecom.util.AuthUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Same contract and messages as CartServiceImplementation, served from WriteBehindCartStore.
+ * A change to a warm cart needs no query at all: the user, the cart and the products are
+ * all resolved in memory, and the rows are written later by the store's flusher.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.engine", havingValue = "write-behind")
+public class WriteBehindCartServiceImplementation implements CartService {
+
+    @Autowired
+    WriteBehindCartStore cartStore;
+
+    @Autowired
+    CartProductSnapshots productSnapshots;
+
+    @Autowired
+    CartListing cartListing;
+
+    @Autowired
+    AuthUtil authUtil;
+
+    @Autowired
+    CartMapper cartMapper;
+
+    @Override
+    public CartDTO addProductToCart(Long productId, Integer quantity) {
+        Product product = product(productId);
+
+        CartSnapshot cart = cartStore.change(authUtil.loggedInUserName(), activeCart -> {
+            if (activeCart.line(productId) != null) {
+                throw new APIException("Product " + product.getProductName() + " already exists in cart.");
+            }
+
+            if (product.getQuantity() == 0) {
+                throw new APIException("Product " + product.getProductName() + " is not available.");
+            }
+
+            if (product.getQuantity() < quantity) {
+                throw new APIException("Please, make an order of the " + product.getProductName()
+                        + " less than or equal to the quantity " + product.getQuantity());
+            }
+
+            activeCart.putLine(productId, quantity, product.getDiscount(), product.getSpecialPrice());
+        });
+        return toDTO(cart);
+    }
+
+    // The admin listing reads the tables, so everything still in memory is written first
+    @Override
+    public CartCursorResponse getCartsByCursor(String cursor, Integer pageSize, boolean nonEmpty, Instant updatedSince, Double minTotal) {
+        cartStore.flushNow();
+        return cartListing.page(cursor, pageSize, nonEmpty, updatedSince, minTotal);
+    }
+
+    @Override
+    public CartDTO getCart(String emailId, Long cartId) {
+        CartSnapshot cart = cartStore.view(emailId);
+        if (cart == null || !cart.getCartId().equals(cartId)) {
+            throw new ResourceNotFoundException("Cart", "cartId", cartId);
+        }
+        return toDTO(cart);
+    }
+
+    @Override
+    public CartDTO getUserCart(String emailId) {
+        CartSnapshot cart = cartStore.view(emailId);
+        if (cart == null) {
+            throw new ResourceNotFoundException("Cart", "email", emailId);
+        }
+        return toDTO(cart);
+    }
+
+    @Override
+    public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
+        Product product = product(productId);
+
+        if (product.getQuantity() == 0) {
+            throw new APIException(product.getProductName() + " is not available");
+        }
+
+        if (product.getQuantity() < quantity) {
+            throw new APIException("Please, make an order of the " + product.getProductName()
+                    + " less than or equal to the quantity " + product.getQuantity() + ".");
+        }
+
+        CartSnapshot cart = cartStore.change(authUtil.loggedInUserName(), activeCart -> {
+            ActiveCartLine line = activeCart.line(productId);
+            if (line == null) {
+                throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+            }
+
+            // Calculate new quantity
+            int newQuantity = line.getQuantity() + quantity;
+
+            // Validation to prevent negative quantities
+            if (newQuantity < 0) {
+                throw new APIException("The resulting quantity cannot be negative.");
+            }
+
+            if (newQuantity == 0) {
+                activeCart.removeLine(productId);
+            } else {
+                activeCart.putLine(productId, newQuantity, product.getDiscount(), product.getSpecialPrice());
+            }
+        });
+        return toDTO(cart);
+    }
+
+    @Override
+    public String deleteProductFromCart(Long cartId, Long productId) {
+        cartStore.changeById(cartId, activeCart -> {
+            if (activeCart.line(productId) == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+            activeCart.removeLine(productId);
+        });
+
+        Product product = productSnapshots.find(productId);
+        return "Product " + (product == null ? productId : product.getProductName()) + " removed from the cart !!!";
+    }
+
+    @Override
+    public void updateProductInCarts(Long cartId, Long productId) {
+        Product product = product(productId);
+
+        cartStore.changeById(cartId, activeCart -> {
+            ActiveCartLine line = activeCart.line(productId);
+            if (line == null) {
+                throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+            }
+
+            activeCart.putLine(productId, line.getQuantity(), product.getDiscount(), product.getSpecialPrice());
+        });
+    }
+
+    @Override
+    public String createOrUpdateCartWithItems(List<CartItemDTO> cartItems) {
+        // Requested quantity per product, a product listed twice counts once
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartItemDTO cartItemDTO : cartItems) {
+            quantities.merge(cartItemDTO.getProductId(), cartItemDTO.getQuantity(), Integer::sum);
+        }
+
+        // Every product is resolved, the unknown ones in a single query, before the cart is touched
+        Map<Long, Product> products = productSnapshots.findAll(quantities.keySet());
+        for (Long productId : quantities.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+        }
+
+        cartStore.change(authUtil.loggedInUserName(), activeCart -> {
+            activeCart.clear();
+            quantities.forEach((productId, quantity) -> {
+                Product product = products.get(productId);
+                activeCart.putLine(productId, quantity, product.getDiscount(), product.getSpecialPrice());
+            });
+        });
+        return "Cart created/updated with the new items successfully";
+    }
+
+    private Product product(Long productId) {
+        Product product = productSnapshots.find(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", "productId", productId);
+        }
+        return product;
+    }
+
+    // Rendered through the same mapper as a loaded cart; lines of products deleted meanwhile are left out
+    private CartDTO toDTO(CartSnapshot snapshot) {
+        Cart cart = new Cart();
+        cart.setCartId(snapshot.getCartId());
+        cart.setTotalPrice(snapshot.getTotalPrice());
+        for (ActiveCartLine line : snapshot.getLines()) {
+            Product product = productSnapshots.find(line.getProductId());
+            if (product != null) {
+                cart.getCartItems().add(new CartItem(null, cart, product, line.getQuantity(),
+                        line.getDiscount(), line.getProductPrice()));
+            }
+        }
+        return cartMapper.toDTO(cart);
+    }
+}
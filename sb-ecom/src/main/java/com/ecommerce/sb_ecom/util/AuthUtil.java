@@ -16,6 +16,11 @@ public class AuthUtil {
     @Autowired
     UserRepository userRepository;
 
+    // Straight from the security context, no user lookup
+    public String loggedInUserName(){
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
     public String loggedInEmail(){
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         User user = userRepository.findByUserName(authentication.getName())
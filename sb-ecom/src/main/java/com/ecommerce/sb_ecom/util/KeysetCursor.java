@@ -0,0 +1,43 @@
+package com.ecommerce.sb_ecom.util;
+
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque position in a keyset-paginated listing: the sort column and direction
+ * plus the sort key and id of the last row the client has seen.
+ */
+@Data
+@AllArgsConstructor
+public class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private String sortBy;
+    private String sortOrder;
+    private Long lastId;
+    private String lastKey;
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + sortOrder + SEPARATOR + lastId + SEPARATOR + lastKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // The key is last and may itself contain the separator
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new APIException("Invalid cursor: " + cursor);
+            }
+            return new KeysetCursor(parts[0], parts[1], Long.valueOf(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new APIException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+-- Schema as ddl-auto=update left it. Databases created that way are adopted at this
+-- version (spring.flyway.baseline-on-migrate), new ones are built from this script.
+
+CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    user_id  BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(20)  NOT NULL,
+    email    VARCHAR(50)  NOT NULL,
+    password VARCHAR(120) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (user_id),
+    -- Login looks users up by name, sign-up checks name and email
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE roles (
+    role_id   INTEGER GENERATED BY DEFAULT AS IDENTITY,
+    role_name VARCHAR(20) CHECK (role_name IN ('ROLE_USER', 'ROLE_SELLER', 'ROLE_ADMIN')),
+    CONSTRAINT pk_roles PRIMARY KEY (role_id)
+);
+
+CREATE TABLE user_role (
+    role_id INTEGER NOT NULL,
+    user_id BIGINT  NOT NULL,
+    CONSTRAINT pk_user_role PRIMARY KEY (role_id, user_id),
+    CONSTRAINT fk_user_role_role FOREIGN KEY (role_id) REFERENCES roles,
+    CONSTRAINT fk_user_role_user FOREIGN KEY (user_id) REFERENCES users
+);
+
+CREATE TABLE addresses (
+    address_id    BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id       BIGINT,
+    building_name VARCHAR(255) NOT NULL,
+    city          VARCHAR(255) NOT NULL,
+    country       VARCHAR(255) NOT NULL,
+    pincode       VARCHAR(255) NOT NULL,
+    state         VARCHAR(255) NOT NULL,
+    street        VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_addresses PRIMARY KEY (address_id),
+    CONSTRAINT fk_addresses_user FOREIGN KEY (user_id) REFERENCES users
+);
+
+CREATE TABLE categories (
+    category_id   BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    category_name VARCHAR(255) NOT NULL,
+    product_count BIGINT,
+    CONSTRAINT pk_categories PRIMARY KEY (category_id)
+);
+
+CREATE TABLE products (
+    product_id    BIGINT       NOT NULL,
+    product_name  VARCHAR(255) NOT NULL,
+    image         VARCHAR(255),
+    description   VARCHAR(255) NOT NULL,
+    quantity      INTEGER,
+    price         FLOAT(53)    NOT NULL,
+    discount      FLOAT(53)    NOT NULL,
+    special_price FLOAT(53)    NOT NULL,
+    category_id   BIGINT,
+    seller_id     BIGINT,
+    updated_at    TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_products PRIMARY KEY (product_id),
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories,
+    CONSTRAINT fk_products_seller FOREIGN KEY (seller_id) REFERENCES users
+);
+
+CREATE INDEX idx_products_name_category ON products (product_name, category_id);
+CREATE INDEX idx_products_category ON products (category_id, product_id);
+CREATE INDEX idx_products_updated_at ON products (updated_at);
+
+CREATE TABLE carts (
+    cart_id     BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id     BIGINT,
+    total_price FLOAT(53),
+    CONSTRAINT pk_carts PRIMARY KEY (cart_id),
+    -- One cart per user, also the index behind the cart-by-user lookups
+    CONSTRAINT uk_carts_user UNIQUE (user_id),
+    CONSTRAINT fk_carts_user FOREIGN KEY (user_id) REFERENCES users
+);
+
+CREATE TABLE cart_items (
+    cart_item_id  BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    cart_id       BIGINT,
+    product_id    BIGINT,
+    quantity      INTEGER,
+    discount      FLOAT(53),
+    product_price FLOAT(53),
+    CONSTRAINT pk_cart_items PRIMARY KEY (cart_item_id),
+    CONSTRAINT fk_cart_items_cart FOREIGN KEY (cart_id) REFERENCES carts,
+    CONSTRAINT fk_cart_items_product FOREIGN KEY (product_id) REFERENCES products
+);
+
+CREATE INDEX idx_cart_items_cart ON cart_items (cart_id);
+CREATE INDEX idx_cart_items_product ON cart_items (product_id);
+
+CREATE TABLE payments (
+    payment_id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    payment_method      VARCHAR(255) NOT NULL,
+    pg_name             VARCHAR(255),
+    pg_payment_id       VARCHAR(255),
+    pg_response_message VARCHAR(255),
+    pg_status           VARCHAR(255),
+    CONSTRAINT pk_payments PRIMARY KEY (payment_id)
+);
+
+CREATE TABLE orders (
+    order_id     BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    email        VARCHAR(255) NOT NULL,
+    order_date   DATE,
+    total_amount FLOAT(53),
+    order_status VARCHAR(255),
+    address_id   BIGINT,
+    payment_id   BIGINT,
+    CONSTRAINT pk_orders PRIMARY KEY (order_id),
+    CONSTRAINT uk_orders_payment UNIQUE (payment_id),
+    CONSTRAINT fk_orders_address FOREIGN KEY (address_id) REFERENCES addresses,
+    CONSTRAINT fk_orders_payment FOREIGN KEY (payment_id) REFERENCES payments
+);
+
+CREATE TABLE order_items (
+    order_item_id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    order_id              BIGINT,
+    product_id            BIGINT,
+    quantity              INTEGER,
+    discount              FLOAT(53) NOT NULL,
+    ordered_product_price FLOAT(53) NOT NULL,
+    CONSTRAINT pk_order_items PRIMARY KEY (order_item_id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders,
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products
+);
+
+CREATE INDEX idx_order_items_product ON order_items (product_id);
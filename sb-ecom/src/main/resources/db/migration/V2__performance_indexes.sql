@@ -0,0 +1,13 @@
+-- Indexes for the hot catalog and cart queries. Built CONCURRENTLY so adopting a live
+-- database does not block writes, which is why this script runs outside a transaction.
+
+-- Category listing: findByCategoryOrderByPriceAsc reads the page straight off the index
+CREATE INDEX CONCURRENTLY idx_products_category_price ON products (category_id, price);
+
+-- Cart line lookup by cart and product; the leading cart_id also serves lookups by cart alone
+CREATE INDEX CONCURRENTLY idx_cart_items_cart_product ON cart_items (cart_id, product_id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_cart_items_cart;
+
+-- Keyword search: upper(product_name) LIKE upper('%keyword%') can use a trigram index
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY idx_products_name_trgm ON products USING gin (upper(product_name) gin_trgm_ops);
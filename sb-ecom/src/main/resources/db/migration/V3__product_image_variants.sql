@@ -0,0 +1,5 @@
+-- Resized copies of products.image, filled in by the background variant workers
+ALTER TABLE products
+    ADD COLUMN thumbnail_image VARCHAR(255),
+    ADD COLUMN listing_image   VARCHAR(255),
+    ADD COLUMN detail_image    VARCHAR(255);
@@ -0,0 +1,16 @@
+-- Content addressed product images. Uploads are named after their SHA-256 and stored once,
+-- ref_count is the number of products showing the file. Images uploaded before this
+-- version have no row and are never collected.
+CREATE TABLE stored_images (
+    content_hash VARCHAR(64)  NOT NULL,
+    file_name    VARCHAR(255) NOT NULL,
+    size_bytes   BIGINT       NOT NULL,
+    ref_count    INTEGER      NOT NULL,
+    released_at  TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_stored_images PRIMARY KEY (content_hash),
+    -- Releases look images up by the name stored on the product
+    CONSTRAINT uk_stored_images_file_name UNIQUE (file_name)
+);
+
+-- The orphan collector only ever reads unreferenced rows
+CREATE INDEX idx_stored_images_orphans ON stored_images (released_at) WHERE ref_count = 0;
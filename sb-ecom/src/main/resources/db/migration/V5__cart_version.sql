@@ -0,0 +1,3 @@
+-- Optimistic lock on carts. Every change to a cart or its lines bumps it, including the
+-- set-based statements, so a writer holding a stale cart fails instead of overwriting.
+ALTER TABLE carts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
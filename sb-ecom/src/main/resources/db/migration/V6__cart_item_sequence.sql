@@ -0,0 +1,10 @@
+-- Cart lines take their ids from a pooled sequence, like products, so Hibernate can batch
+-- their inserts; an identity column makes it insert them one row at a time. Lines written
+-- in SQL draw from the same sequence through the column default. Every nextval hands out
+-- its own block of 50, so the two never collide.
+CREATE SEQUENCE cart_item_seq INCREMENT BY 50;
+SELECT setval('cart_item_seq', GREATEST(MAX(cart_item_id), 1)) FROM cart_items;
+
+ALTER TABLE cart_items ALTER COLUMN cart_item_id DROP IDENTITY;
+ALTER TABLE cart_items ALTER COLUMN cart_item_id SET DEFAULT nextval('cart_item_seq');
+ALTER SEQUENCE cart_item_seq OWNED BY cart_items.cart_item_id;
@@ -0,0 +1,14 @@
+-- When a cart last changed. Kept by a trigger rather than by every writer, because carts are
+-- updated from entities, from set-based statements and from the write-behind flusher alike;
+-- each of those touches the carts row when the cart or one of its lines changes.
+ALTER TABLE carts ADD COLUMN last_modified TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+
+CREATE FUNCTION carts_touch_last_modified() RETURNS trigger AS $$
+BEGIN
+    NEW.last_modified := now();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER carts_last_modified BEFORE UPDATE ON carts
+    FOR EACH ROW EXECUTE FUNCTION carts_touch_last_modified();
@@ -0,0 +1,26 @@
+-- Abandoned cart expiry. Carts idle past cart.expiry.ttl-hours are moved here by
+-- AbandonedCartSweeper (or only deleted, see cart.expiry.mode). No foreign keys, the
+-- users and products may go later. The index is built CONCURRENTLY, which is why this
+-- script runs outside a transaction; IF NOT EXISTS lets a half-applied run be repeated.
+
+CREATE TABLE IF NOT EXISTS cart_archive (
+    cart_id        BIGINT NOT NULL,
+    user_id        BIGINT,
+    total_price    FLOAT(53),
+    last_modified  TIMESTAMP WITH TIME ZONE NOT NULL,
+    archived_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    CONSTRAINT pk_cart_archive PRIMARY KEY (cart_id)
+);
+
+CREATE TABLE IF NOT EXISTS cart_item_archive (
+    cart_item_id   BIGINT NOT NULL,
+    cart_id        BIGINT NOT NULL,
+    product_id     BIGINT,
+    quantity       INTEGER,
+    discount       FLOAT(53),
+    product_price  FLOAT(53),
+    CONSTRAINT pk_cart_item_archive PRIMARY KEY (cart_item_id)
+);
+
+-- The sweeper seeks (last_modified, cart_id) > (?, ?) below the cutoff, oldest first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_carts_last_modified ON carts (last_modified, cart_id);
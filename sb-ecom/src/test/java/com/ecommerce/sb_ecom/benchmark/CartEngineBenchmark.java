@@ -0,0 +1,134 @@
+package com.ecommerce.sb_ecom.benchmark;
+
+import com.ecommerce.sb_ecom.SbEcomApplication;
+import com.ecommerce.sb_ecom.payload.CartDTO;
+import com.ecommerce.sb_ecom.service.CartService;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CartServiceImplementation against the write-behind cart engine on the calls a shopper
+ * makes most: adding a product and changing a quantity. Every thread shops as its own
+ * user. Needs a local Postgres ({@code -Dcart-benchmark.url}, the dev database by
+ * default); everything lives in its own schema, which is dropped afterwards. Run the
+ * main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CartEngineBenchmark {
+
+    private static final String SCHEMA = "cart_benchmark";
+    private static final int PRODUCTS = 1_000;
+    private static final int USERS = 64;
+
+    @Param({"database", "write-behind"})
+    private String engine;
+
+    private ConfigurableApplicationContext context;
+    private Path journal;
+    private CartService cartService;
+    private final AtomicInteger nextUser = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Shopper {
+
+        private String userName;
+        private long productId;
+        private long heldProductId;
+
+        @Setup(Level.Trial)
+        public void setUp(CartEngineBenchmark benchmark) {
+            int user = benchmark.nextUser.incrementAndGet();
+            userName = "shopper" + user;
+            productId = user * 10L;
+            heldProductId = user * 10L + 1;
+            signIn();
+            benchmark.cartService.addProductToCart(heldProductId, 1);
+        }
+
+        // The security context is per thread, so it is set again on whichever thread measures
+        @Setup(Level.Iteration)
+        public void signIn() {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(userName, null, List.of()));
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        journal = Files.createTempDirectory("cart-journal");
+        String url = System.getProperty("cart-benchmark.url", "jdbc:postgresql://localhost:5432/ecommerce");
+        // Arguments rather than default properties, so they win over application.properties
+        context = new SpringApplicationBuilder(SbEcomApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url + "?currentSchema=" + SCHEMA + ",public",
+                "--spring.flyway.schemas=" + SCHEMA,
+                "--spring.flyway.clean-disabled=false",
+                "--cart.engine=" + engine,
+                "--cart.write-behind.journal-dir=" + journal,
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.com.ecommerce.sb_ecom=WARN");
+        Flyway flyway = context.getBean(Flyway.class);
+        flyway.clean();
+        flyway.migrate();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO categories (category_name, product_count) VALUES ('Benchmark', ?)", PRODUCTS);
+        jdbcTemplate.update("INSERT INTO products (product_id, product_name, description, quantity, price, discount, special_price, category_id) " +
+                "SELECT g, 'Product ' || g, 'Benchmark product', 1000000, 100, 0, 100, (SELECT min(category_id) FROM categories) " +
+                "FROM generate_series(1, ?) g", PRODUCTS);
+        jdbcTemplate.update("INSERT INTO users (username, email, password) " +
+                "SELECT 'shopper' || g, 'shopper' || g || '@example.com', 'secret' FROM generate_series(1, ?) g", USERS);
+        cartService = context.getBean(CartService.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try {
+            context.getBean(Flyway.class).clean();
+        } finally {
+            context.close();
+        }
+        try (var files = Files.walk(journal)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    // Adds a product and takes it out again, the line is gone afterwards
+    @Benchmark
+    public CartDTO addAndRemove(Shopper shopper) {
+        cartService.addProductToCart(shopper.productId, 1);
+        return cartService.updateProductQuantityInCart(shopper.productId, -1);
+    }
+
+    @Benchmark
+    public CartDTO changeQuantity(Shopper shopper) {
+        cartService.updateProductQuantityInCart(shopper.heldProductId, 1);
+        return cartService.updateProductQuantityInCart(shopper.heldProductId, -1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CartEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
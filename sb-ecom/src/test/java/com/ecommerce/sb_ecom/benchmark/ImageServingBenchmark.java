@@ -0,0 +1,133 @@
+package com.ecommerce.sb_ecom.benchmark;
+
+import com.ecommerce.sb_ecom.image.ImageFileHandler;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ImageFileHandler against Spring's generic ResourceHttpRequestHandler over the same
+ * directory, both behind an embedded Tomcat and fetched over loopback by concurrent
+ * clients: a thumbnail sized and a detail/original sized file, plus a revalidation
+ * that ends in 304. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ImageServingBenchmark {
+
+    @Param({"16384", "1048576"})
+    private int fileSize;
+
+    private Path directory;
+    private Tomcat tomcat;
+    private HttpClient client;
+    private HttpRequest resourceHandlerRequest;
+    private HttpRequest imageHandlerRequest;
+    private HttpRequest imageHandlerRevalidation;
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("image-benchmark");
+        byte[] bytes = new byte[fileSize];
+        new Random(42).nextBytes(bytes);
+        Files.write(directory.resolve("image.jpg"), bytes);
+
+        ResourceHttpRequestHandler resourceHandler = new ResourceHttpRequestHandler();
+        resourceHandler.setLocations(List.of(new FileSystemResource(directory.toString() + "/")));
+        resourceHandler.afterPropertiesSet();
+
+        ImageFileHandler imageHandler = new ImageFileHandler();
+        ReflectionTestUtils.setField(imageHandler, "path", directory.toString());
+        ReflectionTestUtils.setField(imageHandler, "sendfileMinBytes", 49152L);
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(directory.resolve("tomcat").toString());
+        tomcat.setPort(0);
+        Context context = tomcat.addContext("", directory.toString());
+        Tomcat.addServlet(context, "resources", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, request.getPathInfo().substring(1));
+                try {
+                    resourceHandler.handleRequest(request, response);
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
+        });
+        context.addServletMappingDecoded("/resources/*", "resources");
+        Tomcat.addServlet(context, "images", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                imageHandler.serve(request.getPathInfo().substring(1), request, response);
+            }
+        });
+        context.addServletMappingDecoded("/images/*", "images");
+        tomcat.getConnector();
+        tomcat.start();
+
+        String base = "http://localhost:" + tomcat.getConnector().getLocalPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        resourceHandlerRequest = HttpRequest.newBuilder(URI.create(base + "/resources/image.jpg")).build();
+        imageHandlerRequest = HttpRequest.newBuilder(URI.create(base + "/images/image.jpg")).build();
+        String eTag = client.send(imageHandlerRequest, HttpResponse.BodyHandlers.discarding())
+                .headers().firstValue("ETag").orElseThrow();
+        imageHandlerRevalidation = HttpRequest.newBuilder(URI.create(base + "/images/image.jpg"))
+                .header("If-None-Match", eTag).build();
+    }
+
+    @TearDown
+    public void tearDown() throws LifecycleException, IOException {
+        tomcat.stop();
+        tomcat.destroy();
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int resourceHandler() throws IOException, InterruptedException {
+        return client.send(resourceHandlerRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int imageFileHandler() throws IOException, InterruptedException {
+        return client.send(imageHandlerRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int imageFileHandlerRevalidation() throws IOException, InterruptedException {
+        return client.send(imageHandlerRevalidation, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ImageServingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
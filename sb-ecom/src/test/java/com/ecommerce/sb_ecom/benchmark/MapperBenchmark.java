@@ -0,0 +1,96 @@
+package com.ecommerce.sb_ecom.benchmark;
+
+import com.ecommerce.sb_ecom.mapper.CartMapper;
+import com.ecommerce.sb_ecom.mapper.CartMapperImpl;
+import com.ecommerce.sb_ecom.mapper.OrderMapper;
+import com.ecommerce.sb_ecom.mapper.OrderMapperImpl;
+import com.ecommerce.sb_ecom.mapper.ProductMapper;
+import com.ecommerce.sb_ecom.mapper.ProductMapperImpl;
+import com.ecommerce.sb_ecom.model.Cart;
+import com.ecommerce.sb_ecom.model.Order;
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.CartDTO;
+import com.ecommerce.sb_ecom.payload.OrderDTO;
+import com.ecommerce.sb_ecom.payload.ProductDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated mappers against the reflective ModelMapper path they replaced, on the
+ * shapes the services map most: a 50 product page, a 40 line cart and an order.
+ * Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+    private CartMapper cartMapper;
+    private OrderMapper orderMapper;
+
+    private List<Product> productPage;
+    private Cart cart;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        productMapper = new ProductMapperImpl();
+        cartMapper = new CartMapperImpl(productMapper);
+        orderMapper = new OrderMapperImpl(productMapper);
+        productPage = MapperFixtures.products(50);
+        cart = MapperFixtures.cart(40);
+        order = MapperFixtures.order(10);
+    }
+
+    @Benchmark
+    public List<ProductDTO> productPageModelMapper() {
+        return productPage.stream().map(product -> modelMapper.map(product, ProductDTO.class)).toList();
+    }
+
+    @Benchmark
+    public List<ProductDTO> productPageMapStruct() {
+        return productPage.stream().map(productMapper::toDTO).toList();
+    }
+
+    @Benchmark
+    public CartDTO cartModelMapper() {
+        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        cartDTO.setProducts(cart.getCartItems().stream().map(item -> {
+            ProductDTO productDTO = modelMapper.map(item.getProduct(), ProductDTO.class);
+            productDTO.setQuantity(item.getQuantity());
+            return productDTO;
+        }).toList());
+        return cartDTO;
+    }
+
+    @Benchmark
+    public CartDTO cartMapStruct() {
+        return cartMapper.toDTO(cart);
+    }
+
+    @Benchmark
+    public OrderDTO orderModelMapper() {
+        return modelMapper.map(order, OrderDTO.class);
+    }
+
+    @Benchmark
+    public OrderDTO orderMapStruct() {
+        return orderMapper.toDTO(order);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.sb_ecom.benchmark;
+
+import com.ecommerce.sb_ecom.model.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MapperFixtures {
+
+    public static Product product(long id) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setDescription("Description of product " + id);
+        product.setImage(id + ".png");
+        product.setQuantity((int) (id % 17));
+        product.setPrice(100 + id);
+        product.setDiscount(id % 30);
+        product.setSpecialPrice(product.getPrice() - product.getPrice() * product.getDiscount() * 0.01);
+        Category category = new Category();
+        category.setCategoryId(id % 5);
+        category.setCategoryName("Category " + id % 5);
+        product.setCategory(category);
+        return product;
+    }
+
+    public static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    public static Cart cart(int lines) {
+        Cart cart = new Cart();
+        cart.setCartId(7L);
+        double total = 0;
+        for (int i = 1; i <= lines; i++) {
+            CartItem item = new CartItem();
+            item.setCartItemId((long) i);
+            item.setCart(cart);
+            item.setProduct(product(i));
+            item.setQuantity(i % 4 + 1);
+            item.setDiscount(item.getProduct().getDiscount());
+            item.setProductPrice(item.getProduct().getSpecialPrice());
+            cart.getCartItems().add(item);
+            total += item.getProductPrice() * item.getQuantity();
+        }
+        cart.setTotalPrice(total);
+        return cart;
+    }
+
+    public static Order order(int lines) {
+        Order order = new Order();
+        order.setOrderId(11L);
+        order.setEmail("user1@example.com");
+        order.setOrderDate(LocalDate.of(2024, 1, 1));
+        order.setOrderStatus("Order Accepted !");
+        order.setTotalAmount(123.0);
+        Payment payment = new Payment("card", "pg-1", "succeeded", "ok", "stripe");
+        payment.setPaymentId(3L);
+        order.setPayment(payment);
+        Address address = new Address("Main street", "Building A", "Springfield", "State", "Country", "123456");
+        address.setAddressId(5L);
+        order.setAddress(address);
+        for (int i = 1; i <= lines; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrderItemId((long) i);
+            item.setOrder(order);
+            item.setProduct(product(i));
+            item.setQuantity(i);
+            item.setDiscount(i % 10);
+            item.setOrderedProductPrice(10.0 * i);
+            order.getOrderItems().add(item);
+        }
+        return order;
+    }
+}
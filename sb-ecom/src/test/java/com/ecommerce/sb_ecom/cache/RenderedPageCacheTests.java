@@ -0,0 +1,106 @@
+package com.ecommerce.sb_ecom.cache;
+
+import com.ecommerce.sb_ecom.payload.CacheStatsDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderedPageCacheTests {
+
+    private static final long MAX_BYTES = 8000;
+
+    // Renders to 902 bytes of JSON, so eight pages fit and a ninth evicts
+    private static final String BODY = "x".repeat(900);
+
+    private RenderedPageCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new RenderedPageCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "catalogVersionTracker", new CatalogVersionTracker());
+        ReflectionTestUtils.setField(cache, "maxBytes", MAX_BYTES);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "gzipMinBytes", Integer.MAX_VALUE);
+    }
+
+    @Test
+    void storesAPageOnItsSecondMiss() {
+        CatalogCacheKey key = page(0);
+
+        RenderedPage first = cache.get(key, loader(BODY));
+        assertEquals(0, cache.getStats().getSize());
+
+        RenderedPage second = cache.get(key, loader(BODY));
+        assertNotSame(first, second);
+        assertEquals(1, cache.getStats().getSize());
+
+        assertSame(second, cache.get(key, loader(BODY)));
+        assertEquals(2, loads.get());
+        CacheStatsDTO stats = cache.getStats();
+        assertEquals(1L, stats.getHits());
+        assertEquals(2L, stats.getMisses());
+        assertEquals((long) second.size(), stats.getBytes());
+    }
+
+    @Test
+    void oversizedPagesAreNeverStored() {
+        CatalogCacheKey key = page(0);
+        String large = "x".repeat((int) (MAX_BYTES / 8));
+
+        cache.get(key, loader(large));
+        cache.get(key, loader(large));
+        cache.get(key, loader(large));
+
+        assertEquals(3, loads.get());
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPagesPastTheByteLimit() {
+        for (int pageNumber = 0; pageNumber < 8; pageNumber++) {
+            admit(page(pageNumber));
+        }
+        assertEquals(8, cache.getStats().getSize());
+
+        // Touch the eldest so the second page becomes least recently used
+        RenderedPage kept = cache.get(page(0), loader(BODY));
+        admit(page(8));
+
+        CacheStatsDTO stats = cache.getStats();
+        assertEquals(8, stats.getSize());
+        assertEquals(1L, stats.getEvictions());
+        assertTrue(stats.getBytes() <= MAX_BYTES);
+        assertSame(kept, cache.get(page(0), loader(BODY)));
+
+        int before = loads.get();
+        cache.get(page(1), loader(BODY));
+        assertEquals(before + 1, loads.get());
+    }
+
+    private void admit(CatalogCacheKey key) {
+        cache.get(key, loader(BODY));
+        cache.get(key, loader(BODY));
+    }
+
+    private Supplier<String> loader(String body) {
+        return () -> {
+            loads.incrementAndGet();
+            return body;
+        };
+    }
+
+    private static CatalogCacheKey page(int pageNumber) {
+        return CatalogCacheKey.all(pageNumber, 50, "productId", "asc", false);
+    }
+}
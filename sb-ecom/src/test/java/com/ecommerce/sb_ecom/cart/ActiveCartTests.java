@@ -0,0 +1,56 @@
+package com.ecommerce.sb_ecom.cart;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActiveCartTests {
+
+    @Test
+    void totalIsTheSumOfTheLines() {
+        ActiveCart cart = new ActiveCart(1L, "user@example.com", List.of(new ActiveCartLine(10L, 2, 0.0, 25.0)));
+        assertEquals(50.0, cart.totalPrice());
+
+        cart.putLine(11L, 3, 10.0, 9.0);
+        assertEquals(77.0, cart.totalPrice());
+
+        cart.putLine(10L, 1, 0.0, 25.0);
+        assertEquals(52.0, cart.totalPrice());
+
+        cart.removeLine(11L);
+        assertEquals(25.0, cart.totalPrice());
+
+        cart.clear();
+        assertEquals(0.0, cart.totalPrice());
+        assertTrue(cart.isEmpty());
+    }
+
+    @Test
+    void snapshotCarriesTheTotal() {
+        ActiveCart cart = new ActiveCart(1L, "user@example.com", List.of());
+        cart.putLine(10L, 4, 0.0, 12.5);
+        cart.putLine(11L, 1, 0.0, 0.99);
+
+        CartSnapshot snapshot = cart.snapshot();
+
+        assertEquals(1L, snapshot.getCartId());
+        assertEquals(2, snapshot.getLines().size());
+        assertEquals(cart.totalPrice(), snapshot.getTotalPrice());
+        assertEquals(50.99, snapshot.getTotalPrice(), 1e-9);
+    }
+
+    @Test
+    void changesAreJournaledOnce() {
+        ActiveCart cart = new ActiveCart(1L, "user@example.com", List.of());
+        cart.putLine(10L, 1, 0.0, 25.0);
+        cart.removeLine(10L);
+        cart.removeLine(10L);
+
+        assertEquals(List.of(CartJournal.putRecord(1L, 10L, 1, 0.0, 25.0), CartJournal.removeRecord(1L, 10L)),
+                cart.drainJournalRecords());
+        assertTrue(cart.drainJournalRecords().isEmpty());
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.sb_ecom.cart;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CartJournalTests {
+
+    @Test
+    void replayingACartsRecordsRebuildsItsLines() {
+        ActiveCart cart = new ActiveCart(1L, "user@example.com", List.of());
+        cart.putLine(10L, 1, 5.0, 95.0);
+        cart.putLine(11L, 2, 0.0, 20.0);
+        cart.putLine(10L, 3, 10.0, 90.0);
+        cart.removeLine(11L);
+        cart.putLine(12L, 1, 0.0, 7.5);
+
+        Map<Long, Map<Long, ActiveCartLine>> linesByCart = new HashMap<>();
+        linesByCart.put(1L, new LinkedHashMap<>());
+        cart.drainJournalRecords().forEach(record -> CartJournal.apply(record, linesByCart));
+
+        assertEquals(describe(lines(cart)), describe(linesByCart.get(1L)));
+    }
+
+    @Test
+    void replayIsIdempotent() {
+        List<String> records = List.of(
+                CartJournal.putRecord(1L, 10L, 2, 0.0, 50.0),
+                CartJournal.clearRecord(1L),
+                CartJournal.putRecord(1L, 11L, 1, 0.0, 30.0));
+        Map<Long, Map<Long, ActiveCartLine>> linesByCart = new HashMap<>();
+        linesByCart.put(1L, new LinkedHashMap<>());
+
+        records.forEach(record -> CartJournal.apply(record, linesByCart));
+        Map<Long, String> once = describe(linesByCart.get(1L));
+        records.forEach(record -> CartJournal.apply(record, linesByCart));
+
+        assertEquals(once, describe(linesByCart.get(1L)));
+        assertEquals(Map.of(11L, "1 0.0 30.0"), once);
+    }
+
+    @Test
+    void recordsOfUnknownCartsAreSkipped() {
+        Map<Long, Map<Long, ActiveCartLine>> linesByCart = new HashMap<>();
+        linesByCart.put(1L, new LinkedHashMap<>());
+
+        CartJournal.apply(CartJournal.putRecord(2L, 10L, 1, 0.0, 50.0), linesByCart);
+
+        assertTrue(linesByCart.get(1L).isEmpty());
+        assertEquals(1, linesByCart.size());
+        assertThrows(IllegalArgumentException.class, () -> CartJournal.apply("X 1 10", linesByCart));
+    }
+
+    @Test
+    void tornWritesAreDroppedOnRecovery(@TempDir Path directory) throws IOException {
+        CartJournal journal = new CartJournal(directory, 0, false);
+        journal.append(List.of(CartJournal.putRecord(1L, 10L, 1, 0.0, 50.0), CartJournal.removeRecord(1L, 11L)));
+        journal.close();
+        Files.writeString(directory.resolve("shard-0-1.log"), "S 1 12 2 0.0", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        CartJournal reopened = new CartJournal(directory, 0, false);
+        try {
+            assertEquals(2, reopened.currentSegment());
+            assertEquals(List.of("S 1 10 1 0.0 50.0", "R 1 11"), reopened.readEarlierSegments());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static Map<Long, ActiveCartLine> lines(ActiveCart cart) {
+        Map<Long, ActiveCartLine> lines = new LinkedHashMap<>();
+        cart.productIds().forEach(productId -> lines.put(productId, cart.line(productId)));
+        return lines;
+    }
+
+    // ActiveCartLine has no equals, so lines are compared by their values
+    private static Map<Long, String> describe(Map<Long, ActiveCartLine> lines) {
+        Map<Long, String> described = new HashMap<>();
+        lines.forEach((productId, line) -> described.put(productId,
+                line.getQuantity() + " " + line.getDiscount() + " " + line.getProductPrice()));
+        return described;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.sb_ecom.image;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImageFileHandlerTests {
+
+    @Test
+    void parsesClosedAndOpenRanges() {
+        assertArrayEquals(new long[]{0, 100}, ImageFileHandler.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[]{500, 1000}, ImageFileHandler.parseRange("bytes=500-", 1000));
+        assertArrayEquals(new long[]{900, 1000}, ImageFileHandler.parseRange("bytes=900-5000", 1000));
+    }
+
+    @Test
+    void parsesSuffixRanges() {
+        assertArrayEquals(new long[]{995, 1000}, ImageFileHandler.parseRange("bytes=-5", 1000));
+        assertArrayEquals(new long[]{0, 1000}, ImageFileHandler.parseRange("bytes=-5000", 1000));
+    }
+
+    @Test
+    void unsatisfiableRangesAreEmpty() {
+        assertArrayEquals(new long[0], ImageFileHandler.parseRange("bytes=1000-", 1000));
+        assertArrayEquals(new long[0], ImageFileHandler.parseRange("bytes=-0", 1000));
+        assertArrayEquals(new long[0], ImageFileHandler.parseRange("bytes=-5", 0));
+    }
+
+    @Test
+    void signedPositionsAreIgnored() {
+        assertNull(ImageFileHandler.parseRange("bytes=--5", 1000));
+        assertNull(ImageFileHandler.parseRange("bytes=-+5", 1000));
+        assertNull(ImageFileHandler.parseRange("bytes=+0-99", 1000));
+        assertNull(ImageFileHandler.parseRange("bytes=0--99", 1000));
+    }
+
+    @Test
+    void malformedOrMultipleRangesAreIgnored() {
+        assertNull(ImageFileHandler.parseRange("items=0-99", 1000));
+        assertNull(ImageFileHandler.parseRange("bytes=0-9,20-29", 1000));
+        assertNull(ImageFileHandler.parseRange("bytes=99-0", 1000));
+        assertNull(ImageFileHandler.parseRange("bytes=abc", 1000));
+        assertNull(ImageFileHandler.parseRange("bytes=-", 1000));
+        assertNull(ImageFileHandler.parseRange("bytes=99999999999999999999-", 1000));
+    }
+}
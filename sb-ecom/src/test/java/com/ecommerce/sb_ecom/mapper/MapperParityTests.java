@@ -0,0 +1,75 @@
+package com.ecommerce.sb_ecom.mapper;
+
+import com.ecommerce.sb_ecom.benchmark.MapperFixtures;
+import com.ecommerce.sb_ecom.model.Address;
+import com.ecommerce.sb_ecom.model.Cart;
+import com.ecommerce.sb_ecom.model.Category;
+import com.ecommerce.sb_ecom.model.Order;
+import com.ecommerce.sb_ecom.model.Product;
+import com.ecommerce.sb_ecom.payload.*;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MapperParityTests {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private final CategoryMapper categoryMapper = new CategoryMapperImpl();
+    private final CartMapper cartMapper = new CartMapperImpl(productMapper);
+    private final OrderMapper orderMapper = new OrderMapperImpl(productMapper);
+    private final AddressMapper addressMapper = new AddressMapperImpl();
+
+    @Test
+    void productMatchesModelMapper() {
+        Product product = MapperFixtures.product(42);
+        assertEquals(modelMapper.map(product, ProductDTO.class), productMapper.toDTO(product));
+
+        ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
+        assertEquals(modelMapper.map(productDTO, Product.class).toString(), productMapper.toEntity(productDTO).toString());
+    }
+
+    @Test
+    void categoryMatchesModelMapper() {
+        Category category = MapperFixtures.product(3).getCategory();
+        assertEquals(modelMapper.map(category, CategoryDTO.class), categoryMapper.toDTO(category));
+
+        CategoryDTO categoryDTO = new CategoryDTO(9L, "Electronics");
+        Category fromModelMapper = modelMapper.map(categoryDTO, Category.class);
+        Category fromMapStruct = categoryMapper.toEntity(categoryDTO);
+        assertEquals(fromModelMapper.getCategoryId(), fromMapStruct.getCategoryId());
+        assertEquals(fromModelMapper.getCategoryName(), fromMapStruct.getCategoryName());
+    }
+
+    @Test
+    void cartMatchesModelMapper() {
+        Cart cart = MapperFixtures.cart(5);
+        CartDTO expected = modelMapper.map(cart, CartDTO.class);
+        expected.setProducts(cart.getCartItems().stream().map(item -> {
+            ProductDTO productDTO = modelMapper.map(item.getProduct(), ProductDTO.class);
+            productDTO.setQuantity(item.getQuantity());
+            return productDTO;
+        }).toList());
+        assertEquals(expected, cartMapper.toDTO(cart));
+    }
+
+    @Test
+    void orderMatchesModelMapper() {
+        Order order = MapperFixtures.order(3);
+        assertEquals(modelMapper.map(order, OrderDTO.class), orderMapper.toDTO(order));
+        assertEquals(modelMapper.map(order.getOrderItems().get(0), OrderItemDTO.class),
+                orderMapper.toDTO(order.getOrderItems().get(0)));
+    }
+
+    @Test
+    void addressMatchesModelMapper() {
+        Address address = MapperFixtures.order(1).getAddress();
+        assertEquals(modelMapper.map(address, AddressDTO.class), addressMapper.toDTO(address));
+
+        AddressDTO addressDTO = modelMapper.map(address, AddressDTO.class);
+        Address fromModelMapper = modelMapper.map(addressDTO, Address.class);
+        Address fromMapStruct = addressMapper.toEntity(addressDTO);
+        assertEquals(modelMapper.map(fromModelMapper, AddressDTO.class), addressMapper.toDTO(fromMapStruct));
+    }
+}
@@ -0,0 +1,197 @@
+package com.ecommerce.sb_ecom.repositories;
+
+import com.ecommerce.sb_ecom.model.Category;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN that the hot repository queries are answered from the indexes the
+ * migrations declare. Needs a local Postgres ({@code -Dquery-plan.url}, the dev database
+ * by default) and is skipped without one. Everything lives in its own schema, which is
+ * migrated and seeded before and dropped after the run.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${query-plan.url:" + QueryPlanTests.DEFAULT_URL + "}?currentSchema=" + QueryPlanTests.SCHEMA + ",public",
+        "spring.flyway.schemas=" + QueryPlanTests.SCHEMA,
+        "spring.flyway.clean-disabled=false"
+})
+@EnabledIf("localPostgresAvailable")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTests {
+
+    static final String DEFAULT_URL = "jdbc:postgresql://localhost:5432/ecommerce";
+    static final String SCHEMA = "query_plan_tests";
+
+    private static final int CATEGORIES = 200;
+    private static final int PRODUCTS = 100_000;
+    private static final int USERS = 10_000;
+    private static final int LINES_PER_CART = 5;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CapturedStatements capturedStatements;
+
+    static boolean localPostgresAvailable() {
+        DriverManager.setLoginTimeout(2);
+        try (Connection ignored = DriverManager.getConnection(System.getProperty("query-plan.url", DEFAULT_URL),
+                System.getProperty("query-plan.username", "postgres"), System.getProperty("query-plan.password", "postgres"))) {
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        flyway.clean();
+        flyway.migrate();
+        jdbcTemplate.update("INSERT INTO categories (category_name, product_count) " +
+                "SELECT 'Category ' || g, 0 FROM generate_series(1, ?) g", CATEGORIES);
+        jdbcTemplate.update("INSERT INTO products (product_id, product_name, description, quantity, price, discount, special_price, category_id) " +
+                "SELECT g, 'Product ' || md5(g::text), 'Seeded product', 10, g % 1000 + 1, 0, g % 1000 + 1, " +
+                "(SELECT min(category_id) FROM categories) + g % ? FROM generate_series(1, ?) g", CATEGORIES, PRODUCTS);
+        jdbcTemplate.update("INSERT INTO users (username, email, password) " +
+                "SELECT 'user' || g, 'user' || g || '@example.com', 'secret' FROM generate_series(1, ?) g", USERS);
+        jdbcTemplate.update("INSERT INTO carts (user_id, total_price) SELECT user_id, 0 FROM users");
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, product_id, quantity, discount, product_price) " +
+                "SELECT c.cart_id, 1 + (c.cart_id * ? + i) % ?, 1, 0, 10 FROM carts c CROSS JOIN generate_series(1, ?) i",
+                LINES_PER_CART, PRODUCTS, LINES_PER_CART);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void dropSchema() {
+        flyway.clean();
+    }
+
+    @Test
+    void categoryListingReadsTheCategoryPriceIndex() {
+        Long categoryId = jdbcTemplate.queryForObject("SELECT min(category_id) FROM categories", Long.class);
+        Category category = new Category();
+        category.setCategoryId(categoryId);
+
+        String plan = planOf(() -> productRepository.findSliceByCategoryOrderByPriceAsc(category, PageRequest.of(0, 20)),
+                categoryId, 21);
+        assertUsesIndex(plan, "products", "idx_products_category_price");
+    }
+
+    @Test
+    void keywordSearchReadsTheTrigramIndex() {
+        String keyword = "%" + jdbcTemplate.queryForObject("SELECT substr(md5('4242'), 3, 8)", String.class) + "%";
+
+        String plan = planOf(() -> productRepository.findSliceByProductNameLikeIgnoreCase(keyword, PageRequest.of(0, 20)),
+                keyword, 21);
+        assertUsesIndex(plan, "products", "idx_products_name_trgm");
+    }
+
+    @Test
+    void cartLineLookupReadsTheCartProductIndex() {
+        String plan = planOf(() -> cartItemRepository.findCartItemByProductIdAndCartId(42L, 216L), 42L, 216L);
+        assertUsesIndex(plan, "cart_items", "idx_cart_items_cart_product");
+    }
+
+    @Test
+    void cartByEmailReadsTheUserAndCartIndexes() {
+        String plan = planOf(() -> cartRepository.findCartByEmail("user42@example.com"), "user42@example.com");
+        assertUsesIndex(plan, "users", "uk_users_email");
+        assertUsesIndex(plan, "carts", "uk_carts_user");
+    }
+
+    @Test
+    void userByNameReadsTheUsernameIndex() {
+        String plan = planOf(() -> userRepository.findByUserName("user42"), "user42");
+        assertUsesIndex(plan, "users", "uk_users_username");
+    }
+
+    // Runs the repository call to get the SQL Hibernate sends, then explains that SQL with the same parameters
+    private String planOf(Runnable query, Object... parameters) {
+        capturedStatements.clear();
+        query.run();
+        String sql = capturedStatements.first();
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+    }
+
+    private static void assertUsesIndex(String plan, String table, String index) {
+        // "Index Scan using idx on table" or "Bitmap Index Scan on idx"
+        assertTrue(plan.contains("using " + index + " ") || plan.contains("Index Scan on " + index),
+                () -> "Expected " + index + " in plan:\n" + plan);
+        assertFalse(plan.contains("Seq Scan on " + table), () -> "Unexpected sequential scan of " + table + " in plan:\n" + plan);
+    }
+
+    // Only keeps the statements of the test thread, the index rebuilds query in the background
+    static class CapturedStatements implements StatementInspector {
+
+        private final List<String> statements = new ArrayList<>();
+        private Thread capturing;
+
+        @Override
+        public synchronized String inspect(String sql) {
+            if (Thread.currentThread() == capturing) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+
+        synchronized void clear() {
+            statements.clear();
+            capturing = Thread.currentThread();
+        }
+
+        synchronized String first() {
+            return statements.get(0);
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        CapturedStatements capturedStatements() {
+            return new CapturedStatements();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector(CapturedStatements capturedStatements) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, capturedStatements);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecommerce.sb_ecom.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexDataTests {
+
+    @Test
+    void scoresNameMatchesByPosition() {
+        SearchIndexData data = new SearchIndexData();
+        data.add(product(1, "Apple", null));
+        data.add(product(2, "Apple iPhone", null));
+        data.add(product(3, "Pineapple juice", null));
+        data.add(product(4, "Banana", null));
+
+        Map<Long, Integer> scores = search(data, "APPLE");
+        int match = SearchIndexData.NAME_MATCH_SCORE;
+        int prefix = match + SearchIndexData.NAME_PREFIX_BONUS;
+        assertEquals(Map.of(1L, prefix + SearchIndexData.NAME_EXACT_BONUS, 2L, prefix, 3L, match), scores);
+    }
+
+    @Test
+    void shortTermsScanTheNames() {
+        SearchIndexData data = new SearchIndexData();
+        data.add(product(1, "iPad", null));
+        data.add(product(2, "Laptop", null));
+
+        assertEquals(Map.of(1L, SearchIndexData.NAME_MATCH_SCORE + SearchIndexData.NAME_PREFIX_BONUS), search(data, "ip"));
+    }
+
+    @Test
+    void descriptionMatchesNeedEveryWord() {
+        SearchIndexData data = new SearchIndexData();
+        data.add(product(1, "Kettle", "Stainless steel, 1.7 litre"));
+        data.add(product(2, "Pan", "Cast iron"));
+        data.add(product(3, "Steel pan", "Stainless steel frying pan"));
+
+        assertEquals(Map.of(1L, SearchIndexData.DESCRIPTION_MATCH_SCORE), search(data, "stainless litre"));
+        Map<Long, Integer> steel = search(data, "steel");
+        assertEquals(SearchIndexData.DESCRIPTION_MATCH_SCORE, steel.get(1L));
+        assertEquals(SearchIndexData.NAME_MATCH_SCORE + SearchIndexData.NAME_PREFIX_BONUS
+                + SearchIndexData.DESCRIPTION_MATCH_SCORE, steel.get(3L));
+        assertEquals(2, steel.size());
+    }
+
+    @Test
+    void readdingAProductReplacesItsDocument() {
+        SearchIndexData data = new SearchIndexData();
+        data.add(product(1, "Old name", null));
+        data.add(product(1, "New name", null));
+
+        assertTrue(search(data, "old").isEmpty());
+        assertEquals(Map.of(1L, SearchIndexData.NAME_MATCH_SCORE), search(data, "name"));
+        assertEquals(1, data.liveCount());
+        assertEquals(1, data.deadCount());
+    }
+
+    @Test
+    void appendedChunksKeepTheirDocumentsAndPostings() {
+        SearchIndexData first = new SearchIndexData();
+        first.add(product(1, "Red shirt", null));
+        first.add(product(2, "Blue shirt", null));
+        SearchIndexData second = new SearchIndexData();
+        second.add(product(3, "Red scarf", null));
+        second.add(product(4, "Green shirt", "red trim"));
+
+        SearchIndexData rebuilt = new SearchIndexData();
+        rebuilt.append(first);
+        rebuilt.append(second);
+
+        int prefix = SearchIndexData.NAME_MATCH_SCORE + SearchIndexData.NAME_PREFIX_BONUS;
+        assertEquals(4, rebuilt.liveCount());
+        assertEquals(Map.of(1L, prefix, 3L, prefix, 4L, SearchIndexData.DESCRIPTION_MATCH_SCORE), search(rebuilt, "red"));
+
+        // Product to doc mappings were shifted along with the docs
+        assertTrue(rebuilt.remove(3L));
+        assertEquals(Map.of(1L, prefix, 4L, SearchIndexData.DESCRIPTION_MATCH_SCORE), search(rebuilt, "red"));
+    }
+
+    @Test
+    void compactionDropsDeadDocumentsOnly() {
+        SearchIndexData data = new SearchIndexData();
+        for (long productId = 1; productId <= 2000; productId++) {
+            data.add(product(productId, "Product " + productId, productId % 2 == 0 ? "even" : "odd"));
+        }
+        for (long productId = 1; productId <= 2000; productId += 2) {
+            data.remove(productId);
+        }
+        assertEquals(1000, data.deadCount());
+
+        SearchIndexData compacted = data.compact();
+        assertEquals(1000, compacted.liveCount());
+        assertEquals(0, compacted.deadCount());
+        assertEquals(search(data, "product 12"), search(compacted, "product 12"));
+        assertEquals(1000, search(compacted, "even").size());
+        assertTrue(search(compacted, "odd").isEmpty());
+    }
+
+    @Test
+    void matchesAgreesWithSearch() {
+        SearchIndexData data = new SearchIndexData();
+        data.add(product(1, "Kettle", "Stainless steel, 1.7 litre"));
+
+        for (String keyword : new String[]{"KETT", "ett", "litre stainless", "steel kettle", "iron", " "}) {
+            assertEquals(!search(data, keyword).isEmpty(),
+                    SearchIndexData.matches(keyword, "Kettle", "Stainless steel, 1.7 litre"), keyword);
+        }
+        assertTrue(SearchIndexData.matches("litre", null, "1.7 litre"));
+        assertFalse(SearchIndexData.matches("litre", "Kettle", null));
+    }
+
+    private static Map<Long, Integer> search(SearchIndexData data, String keyword) {
+        Map<Long, Integer> byProduct = new HashMap<>();
+        data.search(keyword).forEach((docId, score) -> byProduct.put(data.doc(docId).getProductId(), score));
+        return byProduct;
+    }
+
+    private static IndexedProduct product(long productId, String name, String description) {
+        return new IndexedProduct(productId, name, description, 10, 100.0, 90.0, 10.0);
+    }
+}
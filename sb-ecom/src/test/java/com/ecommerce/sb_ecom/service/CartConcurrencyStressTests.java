@@ -0,0 +1,175 @@
+package com.ecommerce.sb_ecom.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers one cart from many threads through the database cart engine and checks that no
+ * change is lost: every line ends at the quantity the threads asked for and the stored
+ * total matches the lines. A separate thread keeps bumping the cart's version the way
+ * another instance would, so the optimistic retry path is taken too. Needs a local
+ * Postgres ({@code -Dcart-stress.url}, the dev database by default) and is skipped
+ * without one. Everything lives in its own schema, which is dropped after the run.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${cart-stress.url:" + CartConcurrencyStressTests.DEFAULT_URL + "}?currentSchema=" + CartConcurrencyStressTests.SCHEMA + ",public",
+        "spring.flyway.schemas=" + CartConcurrencyStressTests.SCHEMA,
+        "spring.flyway.clean-disabled=false",
+        "cart.engine=database",
+        // The version bumper can win many times in a row, the test is about totals, not the retry budget
+        "cart.locks.max-attempts=1000"
+})
+@EnabledIf("localPostgresAvailable")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CartConcurrencyStressTests {
+
+    static final String DEFAULT_URL = "jdbc:postgresql://localhost:5432/ecommerce";
+    static final String SCHEMA = "cart_stress_tests";
+
+    private static final String USER = "stress";
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 50;
+    private static final long[] HELD_PRODUCTS = {1, 2, 3, 4};
+    private static final long CHURN_PRODUCTS_FROM = 100;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CartService cartService;
+
+    static boolean localPostgresAvailable() {
+        DriverManager.setLoginTimeout(2);
+        try (Connection ignored = DriverManager.getConnection(System.getProperty("cart-stress.url", DEFAULT_URL),
+                System.getProperty("cart-stress.username", "postgres"), System.getProperty("cart-stress.password", "postgres"))) {
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        flyway.clean();
+        flyway.migrate();
+        jdbcTemplate.update("INSERT INTO categories (category_name, product_count) VALUES ('Stress', 0)");
+        // Prices are whole numbers so the expected total is exact in floating point
+        jdbcTemplate.update("INSERT INTO products (product_id, product_name, description, quantity, price, discount, special_price, category_id) " +
+                "SELECT g, 'Product ' || g, 'Stress product', 1000000, g, 0, g, (SELECT min(category_id) FROM categories) " +
+                "FROM (SELECT generate_series(1, 4) UNION ALL SELECT generate_series(?, ?)) s(g)",
+                CHURN_PRODUCTS_FROM, CHURN_PRODUCTS_FROM + THREADS - 1);
+        jdbcTemplate.update("INSERT INTO users (username, email, password) VALUES (?, ?, 'secret')", USER, USER + "@example.com");
+    }
+
+    @AfterAll
+    void dropSchema() {
+        flyway.clean();
+    }
+
+    @Test
+    void concurrentChangesToOneCartAreNotLost() throws Exception {
+        signIn();
+        for (long productId : HELD_PRODUCTS) {
+            cartService.addProductToCart(productId, 1);
+        }
+        Long cartId = jdbcTemplate.queryForObject(
+                "SELECT c.cart_id FROM carts c JOIN users u ON u.user_id = c.user_id WHERE u.username = ?", Long.class, USER);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            List<Future<?>> shoppers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                shoppers.add(executor.submit(() -> {
+                    signIn();
+                    start.await();
+                    long churnProduct = CHURN_PRODUCTS_FROM + thread;
+                    for (int round = 0; round < ROUNDS; round++) {
+                        cartService.updateProductQuantityInCart(HELD_PRODUCTS[(thread + round) % HELD_PRODUCTS.length], 1);
+                        cartService.addProductToCart(churnProduct, 2);
+                        cartService.updateProductQuantityInCart(churnProduct, -2);
+                    }
+                    return null;
+                }));
+            }
+            // Another instance writing the same cart, invisible to this instance's locks
+            Future<?> otherInstance = executor.submit(() -> {
+                start.await();
+                while (running.get()) {
+                    jdbcTemplate.update("UPDATE carts SET version = version + 1 WHERE cart_id = ?", cartId);
+                    Thread.sleep(1);
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> shopper : shoppers) {
+                shopper.get();
+            }
+            running.set(false);
+            otherInstance.get();
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+
+        double expectedTotal = 0;
+        for (long productId : HELD_PRODUCTS) {
+            int increments = 0;
+            for (int t = 0; t < THREADS; t++) {
+                for (int round = 0; round < ROUNDS; round++) {
+                    if (HELD_PRODUCTS[(t + round) % HELD_PRODUCTS.length] == productId) {
+                        increments++;
+                    }
+                }
+            }
+            Integer quantity = jdbcTemplate.queryForObject(
+                    "SELECT quantity FROM cart_items WHERE cart_id = ? AND product_id = ?", Integer.class, cartId, productId);
+            assertEquals(1 + increments, quantity, "quantity of product " + productId);
+            expectedTotal += productId * (1 + increments);
+        }
+
+        Map<String, Object> cart = jdbcTemplate.queryForMap(
+                "SELECT c.total_price, COALESCE(SUM(ci.product_price * ci.quantity), 0) AS line_total, COUNT(ci.cart_item_id) AS lines " +
+                "FROM carts c LEFT JOIN cart_items ci ON ci.cart_id = c.cart_id WHERE c.cart_id = ? GROUP BY c.cart_id", cartId);
+        assertEquals(HELD_PRODUCTS.length, ((Number) cart.get("lines")).intValue(), "churned lines left behind");
+        assertEquals(expectedTotal, ((Number) cart.get("line_total")).doubleValue());
+        assertEquals(expectedTotal, ((Number) cart.get("total_price")).doubleValue());
+        assertTrue(jdbcTemplate.queryForObject("SELECT version FROM carts WHERE cart_id = ?", Long.class, cartId)
+                >= (long) THREADS * ROUNDS * 3);
+    }
+
+    private static void signIn() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(USER, null, List.of()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.sb_ecom.util;
+
+import com.ecommerce.sb_ecom.exceptions.APIException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTests {
+
+    @Test
+    void decodesWhatItEncodes() {
+        KeysetCursor cursor = new KeysetCursor("specialPrice", "desc", 42L, "199.99");
+
+        String encoded = cursor.encode();
+
+        assertFalse(encoded.contains("="));
+        assertEquals(cursor, KeysetCursor.decode(encoded));
+    }
+
+    @Test
+    void keyMayContainTheSeparator() {
+        KeysetCursor cursor = new KeysetCursor("productName", "asc", 7L, "Salt | Pepper ü");
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(APIException.class, () -> KeysetCursor.decode("not base64!"));
+        assertThrows(APIException.class, () -> KeysetCursor.decode(encode("productName|asc|7")));
+        assertThrows(APIException.class, () -> KeysetCursor.decode(encode("productName|asc|seven|Salt")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}